@@ -0,0 +1,92 @@
+package com.oles.oles.config;
+
+import com.oles.oles.service.AdmissionControl;
+import com.oles.oles.service.AdmissionRejectedException;
+import com.oles.oles.service.ExamPrewarmer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Applies AdmissionControl to /api/candidate/**. Registered as a plain servlet filter, so it runs
+// after Spring Security and only sees authenticated candidates. Over-limit requests get 429 + Retry-After;
+// oles.admission.submit.wait times how long submissions queued for a grading slot.
+// The prewarm probe is let through, since it sends thousands of requests from one account.
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+    private static final Pattern SUBMIT = Pattern.compile("/api/candidate/exams/(\\d+)/submit");
+
+    private final AdmissionControl admission;
+    private final MeterRegistry meters;
+    private final ExamPrewarmer prewarmer;
+
+    public AdmissionFilter(AdmissionControl admission, MeterRegistry meters, ExamPrewarmer prewarmer) {
+        this.admission = admission;
+        this.meters = meters;
+        this.prewarmer = prewarmer;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@org.springframework.lang.NonNull HttpServletRequest req) {
+        return !admission.isEnabled() || !req.getRequestURI().startsWith("/api/candidate/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @org.springframework.lang.NonNull HttpServletRequest req,
+            @org.springframework.lang.NonNull HttpServletResponse res,
+            @org.springframework.lang.NonNull FilterChain chain)
+            throws ServletException, IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || prewarmer.isProbe(req)) {
+            chain.doFilter(req, res);
+            return;
+        }
+        Matcher submit = SUBMIT.matcher(req.getRequestURI());
+        if (!"POST".equals(req.getMethod()) || !submit.matches()) {
+            try {
+                admission.checkRate(auth.getName());
+            } catch (AdmissionRejectedException e) {
+                reject(res, e);
+                return;
+            }
+            chain.doFilter(req, res);
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meters);
+        AdmissionControl.Ticket ticket;
+        try {
+            ticket = admission.admitSubmit(auth.getName(), Long.valueOf(submit.group(1)));
+        } catch (AdmissionRejectedException e) {
+            sample.stop(meters.timer("oles.admission.submit.wait", "outcome", "rejected"));
+            reject(res, e);
+            return;
+        }
+        sample.stop(meters.timer("oles.admission.submit.wait", "outcome", "admitted"));
+        try (ticket) {
+            req.setAttribute(AdmissionControl.RECEIVED_AT, ticket.receivedAt());
+            chain.doFilter(req, res);
+        }
+    }
+
+    private static void reject(HttpServletResponse res, AdmissionRejectedException e) throws IOException {
+        res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        res.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        res.getWriter().write(e.getMessage());
+    }
+}
@@ -0,0 +1,18 @@
+package com.oles.oles.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Spring Boot adds every Module bean to its ObjectMapper. Blackbird replaces Jackson's reflective
+// getter/constructor calls with LambdaMetafactory-generated accessors, which pays off on the
+// response DTOs serialized on every request.
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
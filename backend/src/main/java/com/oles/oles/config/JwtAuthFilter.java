@@ -10,14 +10,17 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import com.oles.oles.service.JwtService;
+import com.oles.oles.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import java.util.List;
 
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
-private final JwtService jwt; private final UserRepository users;
-public JwtAuthFilter(JwtService jwt, UserRepository users){this.jwt=jwt; this.users=users;}
+private final JwtService jwt; private final UserRepository users; private final VerifiedTokenCache tokens; private final MeterRegistry meters;
+public JwtAuthFilter(JwtService jwt, UserRepository users, VerifiedTokenCache tokens, MeterRegistry meters){this.jwt=jwt; this.users=users; this.tokens=tokens; this.meters=meters;}
 @Override
 protected void doFilterInternal(
 		@org.springframework.lang.NonNull HttpServletRequest req,
@@ -26,18 +29,36 @@ protected void doFilterInternal(
 		throws ServletException, IOException {
 String auth = req.getHeader("Authorization");
 if (auth!=null && auth.startsWith("Bearer ")) {
+// oles.auth.filter: time spent authenticating, by how the token was resolved
+Timer.Sample sample = Timer.start(meters);
+String result = "rejected";
 try {
-var jws = jwt.parse(auth.substring(7));
-Claims c = jws.getBody();
-String username = c.getSubject();
-String role = c.get("role", String.class);
-if (users.findByUsername(username).isPresent()) {
-Authentication a = new UsernamePasswordAuthenticationToken(username, null,
-List.of(new SimpleGrantedAuthority("ROLE_"+role)));
+String token = auth.substring(7);
+VerifiedTokenCache.Principal p = tokens.get(token);
+if (p != null) result = "cached";
+else if ((p = verify(token)) != null) result = "verified";
+if (p != null) {
+Authentication a = new UsernamePasswordAuthenticationToken(p.username(), null,
+List.of(new SimpleGrantedAuthority("ROLE_"+p.role())));
 SecurityContextHolder.getContext().setAuthentication(a);
 }
-} catch (Exception ignored) {}
+} catch (Exception ignored) {
+result = "rejected";
+} finally {
+sample.stop(meters.timer("oles.auth.filter", "result", result));
+}
 }
 chain.doFilter(req, res);
 }
-}
\ No newline at end of file
+
+// Cache miss: check the signature and that the user still exists, taking the role from the database
+private VerifiedTokenCache.Principal verify(String token) {
+Claims c = jwt.parse(token).getBody();
+String username = c.getSubject();
+var role = users.findRoleByUsername(username);
+if (role.isEmpty()) return null;
+var p = new VerifiedTokenCache.Principal(username, role.get().name());
+tokens.put(token, p, c.getExpiration() != null ? c.getExpiration().getTime() : Long.MAX_VALUE);
+return p;
+}
+}
@@ -0,0 +1,127 @@
+package com.oles.oles.config;
+
+import com.oles.oles.service.AdmissionControl;
+import com.oles.oles.service.LiveExamFeed;
+import com.oles.oles.service.PasswordHashingExecutor;
+import com.oles.oles.service.QuestionSearchIndex;
+import com.oles.oles.service.SubmissionDedupe;
+import com.oles.oles.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+// Publishes the caches' and pools' own counters through Micrometer, and installs the SQL inspector.
+// Request timers live next to the code they time; Hikari and Hibernate meters come from Spring Boot.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    HibernatePropertiesCustomizer statementInspector(SqlStatementInspector inspector) {
+        return props -> props.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    // Picked up by the application task executor, so MVC async work counts towards its request
+    @Bean
+    TaskDecorator sqlStatementPropagation(SqlStatementInspector inspector) {
+        return inspector::propagate;
+    }
+
+    @Bean
+    MeterBinder tokenCacheMeters(VerifiedTokenCache tokens) {
+        return registry -> {
+            Gauge.builder("oles.auth.token.cache.size", tokens, t -> t.stats().size())
+                    .description("Verified tokens held")
+                    .register(registry);
+            FunctionCounter.builder("oles.auth.token.cache.requests", tokens, t -> t.stats().hits())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("oles.auth.token.cache.requests", tokens, t -> t.stats().misses())
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("oles.auth.token.cache.evictions", tokens, t -> t.stats().evictions())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder hashPoolMeters(PasswordHashingExecutor hasher) {
+        return registry -> {
+            Gauge.builder("oles.auth.hash.pool.active", hasher, h -> h.stats().active())
+                    .register(registry);
+            Gauge.builder("oles.auth.hash.pool.queued", hasher, h -> h.stats().queued())
+                    .register(registry);
+            FunctionCounter.builder("oles.auth.hash.completed", hasher, h -> h.stats().completed())
+                    .register(registry);
+            FunctionCounter.builder("oles.auth.hash.rejected", hasher, h -> h.stats().rejected())
+                    .description("Hash requests turned away because the pool was full")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder submissionDedupeMeters(SubmissionDedupe dedupe) {
+        return registry -> {
+            Gauge.builder("oles.submit.dedupe.size", dedupe, d -> d.stats().size())
+                    .register(registry);
+            FunctionCounter.builder("oles.submit.dedupe.requests", dedupe, d -> d.stats().replays())
+                    .tag("result", "replayed")
+                    .register(registry);
+            FunctionCounter.builder("oles.submit.dedupe.requests", dedupe, d -> d.stats().firstSeen())
+                    .tag("result", "first")
+                    .register(registry);
+            FunctionCounter.builder("oles.submit.dedupe.evictions", dedupe, d -> d.stats().evictions())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder admissionMeters(AdmissionControl admission) {
+        return registry -> {
+            Gauge.builder("oles.admission.submit.in.flight", admission, a -> a.stats().submitsInFlight())
+                    .description("Submissions holding a grading slot")
+                    .register(registry);
+            Gauge.builder("oles.admission.submit.queued", admission, a -> a.stats().submitsQueued())
+                    .description("Submissions waiting for a grading slot")
+                    .register(registry);
+            Gauge.builder("oles.admission.users.tracked", admission, a -> a.stats().trackedUsers())
+                    .register(registry);
+            FunctionCounter.builder("oles.admission.rejected", admission, a -> a.stats().rateLimited())
+                    .tag("reason", AdmissionControl.RATE)
+                    .description("Candidate requests answered with 429")
+                    .register(registry);
+            FunctionCounter.builder("oles.admission.rejected", admission, a -> a.stats().queueRejected())
+                    .tag("reason", AdmissionControl.QUEUE)
+                    .description("Candidate requests answered with 429")
+                    .register(registry);
+            FunctionCounter.builder("oles.admission.submit.carried.over", admission, a -> a.stats().carriedOver())
+                    .description("Submissions recorded at the time of an earlier, rejected attempt")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder liveFeedMeters(LiveExamFeed feed) {
+        return registry -> Gauge.builder("oles.live.subscribers", feed, LiveExamFeed::subscribers)
+                .description("Admins connected to live exam streams")
+                .register(registry);
+    }
+
+    @Bean
+    MeterBinder questionSearchMeters(QuestionSearchIndex index) {
+        return registry -> {
+            Gauge.builder("oles.search.index.questions", index, i -> i.stats().questions())
+                    .register(registry);
+            Gauge.builder("oles.search.index.terms", index, i -> i.stats().terms())
+                    .register(registry);
+            Gauge.builder("oles.search.index.postings", index, i -> i.stats().postingsBytes())
+                    .baseUnit("bytes")
+                    .description("Encoded postings held by the question search index")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.oles.oles.config;
+
+import com.oles.oles.service.ReadRouting;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, enabled by listing their JDBC URLs in oles.datasource.replicas. The
+ * primary keeps the spring.datasource settings; replicas share its driver and, unless
+ * overridden, its credentials and pool size.
+ */
+@Configuration
+@ConditionalOnProperty("oles.datasource.replicas")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties props) {
+        return props.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, DataSourceProperties props,
+            ReadRouting routing,
+            @Value("${oles.datasource.replicas}") List<String> urls,
+            @Value("${oles.datasource.replica-username:${spring.datasource.username:}}") String username,
+            @Value("${oles.datasource.replica-password:${spring.datasource.password:}}") String password,
+            @Value("${oles.datasource.replica-pool-size:0}") int poolSize,
+            @Value("${oles.datasource.replica-max-lag-seconds:5}") double maxLagSeconds,
+            @Value("${oles.datasource.replica-lag-query:SHOW REPLICA STATUS}") String lagQuery) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (replicas.size() + 1));
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setDriverClassName(props.determineDriverClassName());
+            pool.setMaximumPoolSize(poolSize > 0 ? poolSize : primaryDataSource.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            replicas.add(new ReplicaRoutingDataSource.Replica(pool.getPoolName(), pool));
+        }
+        ReplicaRoutingDataSource ds = new ReplicaRoutingDataSource(primaryDataSource, replicas, routing, lagQuery,
+                maxLagSeconds);
+        ds.checkReplicas();
+        return ds;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Spring's default holds the first connection for the whole (open-in-view) session, which
+    // would pin a request to whichever database its first transaction used
+    @Bean
+    HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return props -> props.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    @Bean
+    MeterBinder replicaMeters(ReplicaRoutingDataSource routing) {
+        return registry -> {
+            for (ReplicaRoutingDataSource.Replica r : routing.replicas()) {
+                Gauge.builder("oles.datasource.replica.healthy", r, x -> x.healthy() ? 1 : 0)
+                        .tag("replica", r.name())
+                        .register(registry);
+                Gauge.builder("oles.datasource.replica.lag", r, ReplicaRoutingDataSource.Replica::lagSeconds)
+                        .tag("replica", r.name())
+                        .baseUnit("seconds")
+                        .register(registry);
+            }
+        };
+    }
+}
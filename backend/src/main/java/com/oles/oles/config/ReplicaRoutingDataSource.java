@@ -0,0 +1,165 @@
+package com.oles.oles.config;
+
+import com.oles.oles.service.ReadRouting;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica (round robin) and everything else to
+ * the primary. Must sit behind a LazyConnectionDataSourceProxy so the transaction's
+ * read-only flag is known by the time a connection is picked.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public static final class Replica {
+        private final String name;
+        private final DataSource pool;
+        private volatile boolean healthy;
+        private volatile double lagSeconds = -1;
+
+        public Replica(String name, DataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public boolean healthy() {
+            return healthy;
+        }
+
+        /** Last measured lag, or -1 when the last check failed. */
+        public double lagSeconds() {
+            return lagSeconds;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadRouting routing;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, ReadRouting routing, String lagQuery,
+            double maxLagSeconds) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.routing = routing;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    DataSource target() {
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isActualTransactionActive())
+                routing.wrote(user);
+            return primary;
+        }
+        if (!routing.replicaAllowed(user))
+            return primary;
+        int n = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), n);
+        for (int i = 0; i < n; i++) {
+            Replica r = replicas.get((start + i) % n);
+            if (r.healthy)
+                return r.pool;
+        }
+        return primary;
+    }
+
+    // A replica is in rotation while it answers the lag query with a lag within the limit
+    @Scheduled(fixedDelayString = "${oles.datasource.replica-check-ms:5000}")
+    public void checkReplicas() {
+        for (Replica r : replicas) {
+            double lag = measureLag(r);
+            boolean ok = lag >= 0 && lag <= maxLagSeconds;
+            if (ok != r.healthy)
+                log.warn("Replica {} {} (lag {}s)", r.name, ok ? "in rotation" : "out of rotation",
+                        lag < 0 ? "unknown" : lag);
+            r.lagSeconds = lag;
+            r.healthy = ok;
+        }
+    }
+
+    // -1 when the replica is unreachable or not replicating
+    private double measureLag(Replica r) {
+        try (Connection c = r.pool.getConnection();
+                Statement s = c.createStatement();
+                ResultSet rs = s.executeQuery(lagQuery)) {
+            if (!rs.next())
+                return -1;
+            Object lag = rs.getObject(lagColumn(rs.getMetaData()));
+            return lag == null ? -1 : Double.parseDouble(lag.toString());
+        } catch (SQLException | NumberFormatException e) {
+            log.debug("Lag check failed for replica {}", r.name, e);
+            return -1;
+        }
+    }
+
+    // SHOW REPLICA STATUS has dozens of columns; a custom query returns the lag first
+    private static int lagColumn(ResultSetMetaData md) throws SQLException {
+        for (int i = 1; i <= md.getColumnCount(); i++) {
+            String name = md.getColumnLabel(i);
+            if (name.equalsIgnoreCase("Seconds_Behind_Source") || name.equalsIgnoreCase("Seconds_Behind_Master"))
+                return i;
+        }
+        return 1;
+    }
+
+    private static String currentUser() {
+        Authentication a = SecurityContextHolder.getContext().getAuthentication();
+        return a == null || !a.isAuthenticated() ? null : a.getName();
+    }
+
+    // Pool inspection (e.g. the startup threading report) goes to the primary
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    @Override
+    public void close() {
+        for (Replica r : replicas)
+            if (r.pool instanceof HikariDataSource h)
+                h.close();
+    }
+}
@@ -0,0 +1,110 @@
+package com.oles.oles.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Records Hibernate statements per request (oles.http.sql.statements), by endpoint pattern.
+// Runs first so the JWT filter's user lookup counts too. The count belongs to the request, not the
+// thread: an async request (login, result export, live feed) keeps it across its async dispatch and
+// is recorded once, when it finishes.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    static final String STATEMENTS = RequestMetricsFilter.class.getName() + ".statements";
+
+    private final SqlStatementInspector statements;
+    private final MeterRegistry meters;
+
+    public RequestMetricsFilter(SqlStatementInspector statements, MeterRegistry meters) {
+        this.statements = statements;
+        this.meters = meters;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @org.springframework.lang.NonNull HttpServletRequest req,
+            @org.springframework.lang.NonNull HttpServletResponse res,
+            @org.springframework.lang.NonNull FilterChain chain)
+            throws ServletException, IOException {
+        AtomicInteger count = (AtomicInteger) req.getAttribute(STATEMENTS);
+        if (count == null) {
+            count = new AtomicInteger();
+            req.setAttribute(STATEMENTS, count);
+        }
+        AtomicInteger outer = statements.bind(count);
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            statements.restore(outer);
+            if (req.getDispatcherType() == DispatcherType.REQUEST) {
+                if (req.isAsyncStarted())
+                    req.getAsyncContext().addListener(new RecordOnComplete(req, count));
+                else
+                    record(req, count.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest req, int n) {
+        Object pattern = req.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("oles.http.sql.statements")
+                .description("Hibernate statements prepared for one request, on its container threads"
+                        + " and in tasks it handed to the application task executor; other pools"
+                        + " (password hashing, write-behind, scheduled jobs) are not counted")
+                .tag("method", req.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .register(meters)
+                .record(n);
+    }
+
+    // Completion can come from any thread, with or without an async dispatch before it
+    private final class RecordOnComplete implements AsyncListener {
+        private final HttpServletRequest req;
+        private final AtomicInteger count;
+
+        RecordOnComplete(HttpServletRequest req, AtomicInteger count) {
+            this.req = req;
+            this.count = count;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(req, count.get());
+        }
+
+        // Listeners are dropped when async processing is started again
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+    }
+
+    // The async dispatch counts into the same request's counter
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+package com.oles.oles.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sees every statement Hibernate prepares. Counts them into the counter of the request
+ * being handled on the thread, which {@link RequestMetricsFilter} binds and
+ * {@link #propagate} carries over to tasks the request hands to an executor, and logs a
+ * random sample of them when oles.sql-log.sample-rate is above zero (the replacement
+ * for always-on show-sql). Statements with no request bound are not counted.
+ */
+@Component
+public class SqlStatementInspector implements StatementInspector {
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementInspector.class);
+
+    private final ThreadLocal<AtomicInteger> current = new ThreadLocal<>();
+    private final double sampleRate;
+
+    public SqlStatementInspector(@Value("${oles.sql-log.sample-rate:0}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger c = current.get();
+        if (c != null)
+            c.incrementAndGet();
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)
+            log.info("[{}] {}", Thread.currentThread().getName(), sql);
+        return sql;
+    }
+
+    // Counts this thread's statements into c until restore; returns what was bound before
+    AtomicInteger bind(AtomicInteger c) {
+        AtomicInteger previous = current.get();
+        current.set(c);
+        return previous;
+    }
+
+    void restore(AtomicInteger previous) {
+        if (previous == null)
+            current.remove();
+        else
+            current.set(previous);
+    }
+
+    /** Wraps a task so its statements count towards the request that submitted it. */
+    public Runnable propagate(Runnable task) {
+        AtomicInteger c = current.get();
+        if (c == null)
+            return task;
+        return () -> {
+            AtomicInteger previous = bind(c);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
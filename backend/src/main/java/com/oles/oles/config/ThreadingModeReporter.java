@@ -0,0 +1,43 @@
+package com.oles.oles.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+// Logs which threading mode actually took effect, since the virtual profile is ignored before Java 21
+@Component
+public class ThreadingModeReporter {
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModeReporter.class);
+
+    private final Environment env;
+    private final DataSource dataSource;
+
+    public ThreadingModeReporter(Environment env, DataSource dataSource) {
+        this.env = env;
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        boolean requested = env.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        boolean available = Runtime.version().feature() >= 21;
+        String pool = "n/a";
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class))
+                pool = String.valueOf(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize());
+        } catch (SQLException ignored) {
+        }
+        if (requested && !available)
+            log.warn("Virtual threads requested but running on Java {}; using platform threads",
+                    Runtime.version().feature());
+        log.info("Request handling on {} threads, connection pool size {}",
+                requested && available ? "virtual" : "platform", pool);
+    }
+}
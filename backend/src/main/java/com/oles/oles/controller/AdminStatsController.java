@@ -0,0 +1,48 @@
+package com.oles.oles.controller;
+
+import com.oles.oles.service.ExamPrewarmer;
+import com.oles.oles.service.PasswordHashingExecutor;
+import com.oles.oles.service.SecondLevelCache;
+import com.oles.oles.service.VerifiedTokenCache;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/stats")
+@CrossOrigin
+public class AdminStatsController {
+    private final VerifiedTokenCache tokens;
+    private final PasswordHashingExecutor hasher;
+    private final ExamPrewarmer prewarmer;
+    private final SecondLevelCache entityCache;
+
+    public AdminStatsController(VerifiedTokenCache t, PasswordHashingExecutor h, ExamPrewarmer w,
+            SecondLevelCache c) {
+        tokens = t;
+        hasher = h;
+        prewarmer = w;
+        entityCache = c;
+    }
+
+    @GetMapping("/tokens")
+    public VerifiedTokenCache.Stats tokens() {
+        return tokens.stats();
+    }
+
+    @GetMapping("/login")
+    public PasswordHashingExecutor.Stats login() {
+        return hasher.stats();
+    }
+
+    // Exams warmed ahead of their start time, newest first
+    @GetMapping("/prewarm")
+    public List<ExamPrewarmer.WarmReport> prewarm() {
+        return prewarmer.reports();
+    }
+
+    // Hibernate second-level cache regions (exams, questions, exam-questions)
+    @GetMapping("/entity-cache")
+    public List<SecondLevelCache.RegionStats> entityCache() {
+        return entityCache.stats();
+    }
+}
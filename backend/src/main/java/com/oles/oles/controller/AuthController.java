@@ -2,34 +2,49 @@ package com.oles.oles.controller;
 
 import com.oles.oles.dto.*;
 import com.oles.oles.model.*;
-import com.oles.oles.repo.UserRepository;
+import com.oles.oles.service.LoginBusyException;
 import com.oles.oles.service.UserService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin
 public class AuthController {
     private final UserService users;
-    private final UserRepository repo;
 
-    public AuthController(UserService u, UserRepository r) {
+    public AuthController(UserService u) {
         users = u;
-        repo = r;
     }
 
     @PostMapping("/register")
-    public ResponseEntity<User> register(@RequestBody User u) {
+    public ResponseEntity<UserView> register(@RequestBody User u) {
         if (u.getRole() == null)
             u.setRole(Role.CANDIDATE);
-        return ResponseEntity.ok(users.register(u));
+        return ResponseEntity.ok(UserView.of(users.register(u)));
     }
 
+    // Completes when the password hash does; the Tomcat thread goes back to the pool meanwhile
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest req) {
-        String token = users.login(req.username(), req.password());
-        var user = repo.findByUsername(req.username()).orElseThrow();
-        return ResponseEntity.ok(new AuthResponse(token, user.getRole().name(), user.getUsername()));
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody AuthRequest req) {
+        return users.login(req.username(), req.password()).thenApply(ResponseEntity::ok);
+    }
+
+    // Answered here: a forward to /error would be turned into a 401 by the security chain
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<String> rejected(ResponseStatusException e) {
+        return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+    }
+
+    @ExceptionHandler(LoginBusyException.class)
+    public ResponseEntity<String> busy(LoginBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
     }
-}
\ No newline at end of file
+}
@@ -1,31 +1,113 @@
 package com.oles.oles.controller;
 
-import com.oles.oles.model.Exam;
-import com.oles.oles.repo.ExamRepository;
+import com.oles.oles.dto.ExamSummary;
+import com.oles.oles.service.AnswerSessionStore;
+import com.oles.oles.service.ExamCatalog;
+import com.oles.oles.service.ExamPaperCache;
+import com.oles.oles.service.PaperShuffle;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.security.Principal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/candidate/exams")
 @CrossOrigin
 public class CandidateExamController {
 
-    private final ExamRepository exams;
+    private final ExamCatalog catalog;
+    private final ExamPaperCache papers;
+    private final AnswerSessionStore sessions;
+    private final PaperShuffle shuffle;
+    private final MeterRegistry meters;
 
-    public CandidateExamController(ExamRepository exams) {
-        this.exams = exams;
+    public CandidateExamController(ExamCatalog catalog, ExamPaperCache papers, AnswerSessionStore sessions,
+            PaperShuffle shuffle, MeterRegistry meters) {
+        this.catalog = catalog;
+        this.papers = papers;
+        this.sessions = sessions;
+        this.shuffle = shuffle;
+        this.meters = meters;
     }
 
-    // 🔹 Candidate: See all exams
+    // 🔹 Candidate: See all exams (summaries only; answers 304 when If-None-Match is current)
     @GetMapping
-    public List<Exam> all() {
-        return exams.findAll();
+    public ResponseEntity<List<ExamSummary>> all(WebRequest request) {
+        Timer.Sample sample = Timer.start(meters);
+        if (request.checkNotModified(catalog.etag())) {
+            sample.stop(meters.timer("oles.exam.catalog", "result", "not-modified"));
+            return null;
+        }
+        ExamCatalog.Snapshot s = catalog.current();
+        sample.stop(meters.timer("oles.exam.catalog", "result", "full"));
+        return ResponseEntity.ok()
+                .eTag(s.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(s.exams());
     }
 
-    // 🔹 Candidate: Get exam by ID (with questions)
+    // 🔹 Candidate: Get exam by ID (with questions, no answers), served from pre-rendered bytes.
+    // With shuffling on, questions and choices come in this candidate's own order. That copy is
+    // assembled per request and sent uncompressed: gzipping a body nobody else shares costs more
+    // CPU than it saves, and the variant ETag still turns reloads into 304s.
+    // The order follows the authenticated candidate, never a header the client chooses.
     @GetMapping("/{id}")
-    public Exam one(@PathVariable Long id) {
-        return exams.findById(id).orElseThrow();
+    public ResponseEntity<byte[]> one(@PathVariable Long id, WebRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Principal principal) {
+        Timer.Sample sample = Timer.start(meters);
+        String candidate = principal.getName();
+        ExamPaperCache.RenderedPaper paper = papers.get(id);
+        ExamPaperCache.Ordering ordering = shuffle.ordering(candidate, id);
+        boolean gzip = ordering == null && ExamPaperCache.acceptsGzip(acceptEncoding);
+        String result;
+        ResponseEntity<byte[]> res = null;
+        if (ordering != null) {
+            String etag = paper.etag(shuffle.variant(candidate, id));
+            result = "shuffled";
+            if (!request.checkNotModified(etag))
+                res = respond(etag, false, paper.assemble(ordering));
+        } else {
+            String etag = gzip ? paper.gzipEtag() : paper.etag();
+            result = "shared";
+            if (!request.checkNotModified(etag))
+                res = respond(etag, gzip, gzip ? paper.gzip() : paper.plain());
+        }
+        sample.stop(meters.timer("oles.exam.paper", "result", res == null ? "not-modified" : result,
+                "encoding", gzip ? "gzip" : "identity"));
+        return res;
+    }
+
+    private static ResponseEntity<byte[]> respond(String etag, boolean gzip, byte[] body) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip)
+            ok.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return ok.body(body);
+    }
+
+    // 🔹 Candidate: Autosave answers (only the changed ones need to be sent; null clears)
+    @PutMapping("/{id}/autosave")
+    public Map<String, Integer> autosave(@PathVariable Long id, @RequestBody Map<Long, Integer> answers,
+            @RequestHeader("X-User") String username, Principal principal) {
+        return Map.of("answered", sessions.save(username, id, shuffle.toOriginal(principal.getName(), id, answers)));
+    }
+
+    // 🔹 Candidate: Resume an exam in progress
+    @GetMapping("/{id}/session")
+    public Map<Long, Integer> session(@PathVariable Long id, @RequestHeader("X-User") String username,
+            Principal principal) {
+        return shuffle.toDisplayed(principal.getName(), id, sessions.resume(username, id));
     }
 }
@@ -1,8 +1,18 @@
 package com.oles.oles.controller;
 
+import com.oles.oles.dto.AssemblyRequest;
+import com.oles.oles.dto.AssemblyResult;
+import com.oles.oles.dto.ExamView;
 import com.oles.oles.model.*;
 import com.oles.oles.repo.*;
+import com.oles.oles.service.ExamChanges;
+import com.oles.oles.service.ExamService;
+import com.oles.oles.service.ItemAnalysisService;
+import com.oles.oles.service.LiveExamFeed;
+import com.oles.oles.service.ScoreAggregates;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.*;
 
 @RestController
@@ -11,27 +21,66 @@ import java.util.*;
 public class ExamController {
     private final ExamRepository exams;
     private final QuestionRepository questions;
+    private final ExamChanges changes;
+    private final ScoreAggregates aggregates;
+    private final ItemAnalysisService itemAnalysis;
+    private final ExamService examService;
+    private final LiveExamFeed live;
 
-    public ExamController(ExamRepository e, QuestionRepository q) {
+    public ExamController(ExamRepository e, QuestionRepository q, ExamChanges c, ScoreAggregates a,
+            ItemAnalysisService i, ExamService s, LiveExamFeed l) {
         exams = e;
         questions = q;
+        changes = c;
+        aggregates = a;
+        itemAnalysis = i;
+        examService = s;
+        live = l;
     }
 
     @PostMapping
-    public Exam create(@RequestBody Exam e) {
-        return exams.save(e);
+    public ExamView create(@RequestBody Exam e) {
+        Exam saved = exams.save(e);
+        changes.examCreated(saved.getId());
+        return ExamView.of(saved);
     }
 
     @GetMapping
-    public List<Exam> all() {
-        return exams.findAll();
+    public List<ExamView> all() {
+        return exams.findAllWithQuestions().stream().map(ExamView::of).toList();
     }
 
     @PostMapping("/{id}/addQuestion/{qid}")
-    public Exam addQuestion(@PathVariable Long id, @PathVariable Long qid) {
+    public ExamView addQuestion(@PathVariable Long id, @PathVariable Long qid) {
         Exam e = exams.findById(id).orElseThrow();
         Question q = questions.findById(qid).orElseThrow();
         e.getQuestions().add(q);
-        return exams.save(e);
+        Exam saved = exams.save(e);
+        changes.examChanged(id);
+        return ExamView.of(saved);
     }
-}
\ No newline at end of file
+
+    // Pick questions by rule (subject, count, keyword); only membership changes are written
+    @PostMapping("/{id}/assemble")
+    public AssemblyResult assemble(@PathVariable Long id, @RequestBody AssemblyRequest rule) {
+        return examService.assemble(id, rule);
+    }
+
+    // Live score statistics for an exam (count, mean, variance, min/max, histogram)
+    @GetMapping("/{id}/stats")
+    public ScoreAggregates.ExamStats stats(@PathVariable Long id) {
+        return aggregates.stats(id);
+    }
+
+    // The same statistics plus candidates in progress, pushed as server-sent events while they change
+    @GetMapping(value = "/{id}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter live(@PathVariable Long id) {
+        return live.subscribe(id);
+    }
+
+    // Difficulty, discrimination and choice frequencies per question, from stored answer vectors
+    @GetMapping("/{id}/item-analysis")
+    public ItemAnalysisService.ItemAnalysis itemAnalysis(@PathVariable Long id) {
+        return itemAnalysis.analyse(id);
+    }
+}
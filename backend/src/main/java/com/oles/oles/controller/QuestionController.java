@@ -1,38 +1,102 @@
 package com.oles.oles.controller;
 
+import com.oles.oles.dto.ImportReport;
+import com.oles.oles.dto.QuestionSearchResult;
+import com.oles.oles.dto.QuestionView;
 import com.oles.oles.model.Question;
 import com.oles.oles.repo.QuestionRepository;
+import com.oles.oles.service.ExamChanges;
+import com.oles.oles.service.QuestionImportService;
+import com.oles.oles.service.QuestionSearchIndex;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin/questions")
 @CrossOrigin
 public class QuestionController {
+    private static final int MAX_PAGE = 100;
+
     private final QuestionRepository repo;
+    private final ExamChanges changes;
+    private final QuestionImportService importer;
+    private final QuestionSearchIndex index;
 
-    public QuestionController(QuestionRepository r) {
+    public QuestionController(QuestionRepository r, ExamChanges c, QuestionImportService i, QuestionSearchIndex s) {
         repo = r;
+        changes = c;
+        importer = i;
+        index = s;
     }
 
     @PostMapping
-    public Question create(@RequestBody Question q) {
-        return repo.save(q);
+    public QuestionView create(@RequestBody Question q) {
+        Question saved = repo.save(q);
+        changes.questionsCreated(List.of(saved));
+        return QuestionView.of(saved);
+    }
+
+    // Bulk import from a CSV (header row required) or JSON array body, streamed row by row
+    @PostMapping("/import")
+    public ImportReport importQuestions(InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) Long examId,
+            @RequestParam(defaultValue = "500") int batchSize) throws IOException {
+        boolean csv = format != null ? "csv".equalsIgnoreCase(format)
+                : contentType != null && contentType.toLowerCase().contains("csv");
+        return importer.importQuestions(body, csv ? QuestionImportService.Format.CSV
+                : QuestionImportService.Format.JSON, examId, batchSize);
+    }
+
+    // Answered here: a forward to /error would be turned into a 401 by the security chain
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<String> rejected(ResponseStatusException e) {
+        return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
     }
 
     @GetMapping
-    public List<Question> all() {
-        return repo.findAll();
+    public List<QuestionView> all() {
+        return repo.findAll().stream().map(QuestionView::of).toList();
+    }
+
+    // Ranked keyword search over text, subject and choices; every word must match
+    @GetMapping("/search")
+    public QuestionSearchResult search(@RequestParam(required = false) String q,
+            @RequestParam(required = false) String subject,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        page = Math.max(0, page);
+        size = Math.max(1, Math.min(size, MAX_PAGE));
+        QuestionSearchIndex.Page hits = index.search(q, subject, page, size);
+        Map<Long, Question> byId = repo.findAllById(hits.hits().stream().map(QuestionSearchIndex.Hit::id).toList())
+                .stream().collect(Collectors.toMap(Question::getId, Function.identity()));
+        // A question deleted since the index was read is simply left out
+        List<QuestionSearchResult.Hit> rows = hits.hits().stream()
+                .filter(h -> byId.containsKey(h.id()))
+                .map(h -> new QuestionSearchResult.Hit(h.score(), QuestionView.of(byId.get(h.id()))))
+                .toList();
+        return new QuestionSearchResult(hits.total(), page, size, rows);
     }
 
     @PutMapping("/{id}")
-    public Question update(@PathVariable Long id, @RequestBody Question q) {
+    public QuestionView update(@PathVariable Long id, @RequestBody Question q) {
         q.setId(id);
-        return repo.save(q);
+        Question saved = repo.save(q);
+        changes.questionChanged(saved);
+        return QuestionView.of(saved);
     }
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
         repo.deleteById(id);
+        changes.questionDeleted(id);
     }
 }
\ No newline at end of file
@@ -1,56 +1,233 @@
 package com.oles.oles.controller;
 
+import com.oles.oles.dto.ResultView;
+import com.oles.oles.dto.SubmissionReceipt;
 import com.oles.oles.model.*;
 import com.oles.oles.repo.*;
+import com.oles.oles.service.AdmissionControl;
+import com.oles.oles.service.AnswerKey;
+import com.oles.oles.service.AnswerKeyCache;
+import com.oles.oles.service.AnswerSessionStore;
+import com.oles.oles.service.ExamPrewarmer;
+import com.oles.oles.service.PaperShuffle;
+import com.oles.oles.service.ResultExportService;
+import com.oles.oles.service.ScoreAggregates;
+import com.oles.oles.service.SubmissionBusyException;
+import com.oles.oles.service.SubmissionDedupe;
+import com.oles.oles.service.SubmissionPipeline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @RestController
 @RequestMapping("/api")
 @CrossOrigin
 public class ResultController {
+    private static final int MAX_PAGE = 500;
+
     private final ExamRepository exams;
     private final ResultRepository results;
     private final UserRepository users;
+    private final AnswerKeyCache answerKeys;
+    private final SubmissionPipeline pipeline;
+    private final ResultExportService exporter;
+    private final ScoreAggregates aggregates;
+    private final AnswerSessionStore sessions;
+    private final PaperShuffle shuffle;
+    private final MeterRegistry meters;
+    private final SubmissionDedupe dedupe;
+    private final ExamPrewarmer prewarmer;
 
-    public ResultController(ExamRepository e, ResultRepository r, UserRepository u) {
+    public ResultController(ExamRepository e, ResultRepository r, UserRepository u, AnswerKeyCache k,
+            SubmissionPipeline p, ResultExportService x, ScoreAggregates a, AnswerSessionStore s,
+            PaperShuffle sh, MeterRegistry m, SubmissionDedupe d, ExamPrewarmer w) {
         exams = e;
         results = r;
         users = u;
+        answerKeys = k;
+        pipeline = p;
+        exporter = x;
+        aggregates = a;
+        sessions = s;
+        shuffle = sh;
+        meters = m;
+        dedupe = d;
+        prewarmer = w;
     }
 
+    // The body may be empty when answers were autosaved; any answers sent override the saved ones.
+    // Retries carrying the same Idempotency-Key get the original response back.
+    // The result is stamped with the time admission control first saw the submission, not when it was graded.
     @PostMapping("/candidate/exams/{id}/submit")
-    public Result submit(@PathVariable Long id, @RequestBody Map<Long, Integer> answers,
-            @RequestHeader("X-User") String username) {
-        Exam exam = exams.findById(id).orElseThrow();
-        User user = users.findByUsername(username).orElseThrow();
-        int total = exam.getQuestions().size();
-        int score = 0;
-        for (Question q : exam.getQuestions()) {
-            Integer chosen = answers.get(q.getId());
-            if (chosen != null && chosen.equals(q.getCorrectIndex()))
-                score++;
+    public ResponseEntity<?> submit(@PathVariable Long id, @RequestBody(required = false) Map<Long, Integer> answers,
+            @RequestHeader("X-User") String username,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestAttribute(value = AdmissionControl.RECEIVED_AT, required = false) LocalDateTime receivedAt,
+            HttpServletRequest request, Principal principal) {
+        Timer.Sample sample = Timer.start(meters);
+        String outcome = "error";
+        boolean probe = prewarmer.isProbe(request);
+        try {
+            ResponseEntity<?> res = dedupe.execute(username, id, idempotencyKey,
+                    () -> grade(id, answers, username, principal.getName(), receivedAt, probe));
+            outcome = res.getHeaders().containsKey("Idempotent-Replayed") ? "replayed"
+                    : res.getStatusCode().value() == 202 ? "queued" : "saved";
+            return res;
+        } catch (SubmissionBusyException e) {
+            outcome = "busy";
+            throw e;
+        } finally {
+            sample.stop(meters.timer("oles.submit", "outcome", outcome));
         }
-        Result res = new Result(user, exam, score, total);
-        return results.save(res);
     }
 
+    // Write-behind queue full: nothing was stored and the autosaved answers are still there
+    @ExceptionHandler(SubmissionBusyException.class)
+    public ResponseEntity<String> busy(SubmissionBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    // Candidate: poll a write-behind submission receipt
+    @GetMapping("/candidate/submissions/{receipt}")
+    public ResponseEntity<SubmissionReceipt> receipt(@PathVariable String receipt,
+            @RequestHeader("X-User") String username) {
+        return ResponseEntity.of(pipeline.find(receipt, username));
+    }
+
+    // List endpoints take an optional keyset cursor: ?limit=N[&afterId=lastIdSeen].
+    // The next cursor comes back in X-Next-After-Id while more rows remain.
     @GetMapping("/candidate/results")
-    public List<Result> myResults(@RequestHeader("X-User") String username) {
+    public ResponseEntity<List<ResultView>> myResults(@RequestHeader("X-User") String username,
+            @RequestParam(required = false) Long afterId, @RequestParam(required = false) Integer limit) {
         User user = users.findByUsername(username).orElseThrow();
-        return results.findByCandidate(user);
+        if (limit == null)
+            return ResponseEntity.ok(views(results.findByCandidate(user)));
+        return page(results.findByCandidateAndIdGreaterThanOrderByIdAsc(user, cursor(afterId), pageOf(limit)), limit);
     }
 
     // Admin: view all results
     @GetMapping("/admin/results")
-    public List<Result> allResults() {
-        return results.findAll();
+    public ResponseEntity<List<ResultView>> allResults(@RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit) {
+        if (limit == null)
+            return ResponseEntity.ok(views(results.findAll()));
+        return page(results.findByIdGreaterThanOrderByIdAsc(cursor(afterId), pageOf(limit)), limit);
     }
 
     // Admin: view results for a specific user id
     @GetMapping("/admin/results/user/{userId}")
-    public List<Result> resultsByUserId(@PathVariable Long userId) {
+    public ResponseEntity<List<ResultView>> resultsByUserId(@PathVariable Long userId,
+            @RequestParam(required = false) Long afterId, @RequestParam(required = false) Integer limit) {
         User user = users.findById(userId).orElseThrow();
-        return results.findByCandidate(user);
+        if (limit == null)
+            return ResponseEntity.ok(views(results.findByCandidate(user)));
+        return page(results.findByCandidateAndIdGreaterThanOrderByIdAsc(user, cursor(afterId), pageOf(limit)), limit);
+    }
+
+    // Admin: stream results as NDJSON (default) or CSV without loading them all
+    @GetMapping("/admin/results/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long examId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        ResultExportService.Format f = "csv".equalsIgnoreCase(format)
+                ? ResultExportService.Format.CSV
+                : ResultExportService.Format.NDJSON;
+        MediaType type = f == ResultExportService.Format.CSV
+                ? new MediaType("text", "csv")
+                : new MediaType("application", "x-ndjson");
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=results." + f.name().toLowerCase())
+                .body(out -> exporter.export(out, f, examId, from, to));
+    }
+
+    // The shuffle is undone for the authenticated candidate, the one the paper was ordered for
+    private ResponseEntity<?> grade(Long id, Map<Long, Integer> answers, String username, String candidate,
+            LocalDateTime receivedAt, boolean probe) {
+        Exam exam = exams.findById(id).orElseThrow();
+        User user = users.findByUsername(username).orElseThrow();
+        AnswerKey key = answerKeys.get(id);
+        // Answers arrive in the candidate's shuffled choice order; saved sessions are already in the original.
+        // The saved session is only dropped once the result is stored (here, or by the pipeline).
+        byte[] vector = merge(key, sessions.answers(username, id, key), shuffle.toOriginal(candidate, id, answers));
+        int score = key.scoreVector(vector);
+        Result res = new Result(user, exam, score, key.total());
+        res.setAnswers(vector);
+        res.setAnswerLayout(key.layout());
+        if (receivedAt != null)
+            res.setSubmittedAt(receivedAt);
+        // The prewarm probe runs the whole path up to here; nothing is stored or counted
+        if (probe)
+            return ResponseEntity.ok(ResultView.of(res));
+        if (pipeline.isEnabled()) {
+            res.setAttempt(pipeline.nextAttempt(user, exam));
+            res.setPercentileRank(aggregates.record(id, score, key.total()));
+            return ResponseEntity.accepted().body(pipeline.submit(res));
+        }
+        res.setAttempt(results.findLastAttempt(user, exam) + 1);
+        Result saved;
+        try {
+            saved = results.save(res);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent duplicate stored this attempt first: answer with that row
+            ResultView stored = results.findByCandidateAndExamAndAttempt(user, exam, res.getAttempt())
+                    .map(ResultView::of)
+                    .orElseThrow(() -> e);
+            sessions.discard(username, id);
+            return ResponseEntity.ok(stored);
+        }
+        sessions.discard(username, id);
+        saved.setPercentileRank(aggregates.record(id, score, key.total()));
+        return ResponseEntity.ok(ResultView.of(saved));
+    }
+
+    private static byte[] merge(AnswerKey key, byte[] saved, Map<Long, Integer> answers) {
+        byte[] sent = key.encode(answers);
+        if (saved == null)
+            return sent;
+        for (int i = 0; i < sent.length; i++)
+            if (sent[i] != 0)
+                saved[i] = sent[i];
+        return saved;
+    }
+
+    private static long cursor(Long afterId) {
+        return afterId == null ? 0 : afterId;
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE));
+    }
+
+    private static PageRequest pageOf(int limit) {
+        return PageRequest.of(0, clamp(limit));
+    }
+
+    private static ResponseEntity<List<ResultView>> page(List<Result> rows, int limit) {
+        var ok = ResponseEntity.ok();
+        if (!rows.isEmpty() && rows.size() >= clamp(limit))
+            ok.header("X-Next-After-Id", String.valueOf(rows.get(rows.size() - 1).getId()));
+        return ok.body(views(rows));
+    }
+
+    private static List<ResultView> views(List<Result> rows) {
+        return rows.stream().map(ResultView::of).toList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,3 @@
+package com.oles.oles.dto;
+// subject defaults to the exam's subject; count null means every matching question
+public record AssemblyRequest(String subject, Integer count, String keyword) {}
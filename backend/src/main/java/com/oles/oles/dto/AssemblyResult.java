@@ -0,0 +1,2 @@
+package com.oles.oles.dto;
+public record AssemblyResult(Long examId, int kept, int added, int removed, int total) {}
@@ -0,0 +1,5 @@
+package com.oles.oles.dto;
+import java.time.LocalDateTime;
+import java.util.List;
+public record CandidatePaper(Long id, String title, String subject, Integer durationMinutes,
+        LocalDateTime startTime, LocalDateTime endTime, List<CandidateQuestion> questions) {}
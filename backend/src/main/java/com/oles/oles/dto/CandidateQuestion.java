@@ -0,0 +1,10 @@
+package com.oles.oles.dto;
+import com.oles.oles.model.Question;
+// What a candidate sees of a question: no correctIndex
+public record CandidateQuestion(Long id, String subject, String text,
+        String choice1, String choice2, String choice3, String choice4) {
+    public static CandidateQuestion of(Question q) {
+        return new CandidateQuestion(q.getId(), q.getSubject(), q.getText(),
+                q.getChoice1(), q.getChoice2(), q.getChoice3(), q.getChoice4());
+    }
+}
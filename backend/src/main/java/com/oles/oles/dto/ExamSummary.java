@@ -0,0 +1,4 @@
+package com.oles.oles.dto;
+import java.time.LocalDateTime;
+public record ExamSummary(Long id, String title, String subject, Integer durationMinutes,
+        LocalDateTime startTime, LocalDateTime endTime, Integer questionCount) {}
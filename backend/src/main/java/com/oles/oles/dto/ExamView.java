@@ -0,0 +1,12 @@
+package com.oles.oles.dto;
+import com.oles.oles.model.Exam;
+import java.time.LocalDateTime;
+import java.util.List;
+// Admin view of an exam with its questions
+public record ExamView(Long id, String title, String subject, Integer durationMinutes,
+        LocalDateTime startTime, LocalDateTime endTime, List<QuestionView> questions) {
+    public static ExamView of(Exam e) {
+        return new ExamView(e.getId(), e.getTitle(), e.getSubject(), e.getDurationMinutes(),
+                e.getStartTime(), e.getEndTime(), e.getQuestions().stream().map(QuestionView::of).toList());
+    }
+}
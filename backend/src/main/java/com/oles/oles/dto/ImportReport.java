@@ -0,0 +1,5 @@
+package com.oles.oles.dto;
+import java.util.List;
+public record ImportReport(int imported, int failed, Long examId, List<RowError> errors, boolean errorsTruncated) {
+    public record RowError(long row, String message) {}
+}
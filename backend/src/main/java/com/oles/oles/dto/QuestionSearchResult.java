@@ -0,0 +1,6 @@
+package com.oles.oles.dto;
+import java.util.List;
+// One page of ranked question-bank search results; total counts every match
+public record QuestionSearchResult(long total, int page, int size, List<Hit> hits) {
+    public record Hit(double score, QuestionView question) {}
+}
@@ -0,0 +1,10 @@
+package com.oles.oles.dto;
+import com.oles.oles.model.Question;
+// Admin view of a question, answer included; candidates get CandidateQuestion
+public record QuestionView(Long id, String subject, String text,
+        String choice1, String choice2, String choice3, String choice4, Integer correctIndex) {
+    public static QuestionView of(Question q) {
+        return new QuestionView(q.getId(), q.getSubject(), q.getText(),
+                q.getChoice1(), q.getChoice2(), q.getChoice3(), q.getChoice4(), q.getCorrectIndex());
+    }
+}
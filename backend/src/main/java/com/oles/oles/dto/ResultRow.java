@@ -0,0 +1,4 @@
+package com.oles.oles.dto;
+import java.time.LocalDateTime;
+public record ResultRow(Long id, Long candidateId, String username, Long examId, String examTitle,
+        Integer score, Integer total, LocalDateTime submittedAt) {}
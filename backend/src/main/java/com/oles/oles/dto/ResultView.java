@@ -0,0 +1,20 @@
+package com.oles.oles.dto;
+import com.oles.oles.model.Exam;
+import com.oles.oles.model.Result;
+import java.time.LocalDateTime;
+// A graded result: the exam without its questions (and so without answers), the candidate without a password
+public record ResultView(Long id, UserView candidate, ExamRef exam, Integer score, Integer total,
+        Integer attempt, LocalDateTime submittedAt, Double percentileRank) {
+    public record ExamRef(Long id, String title, String subject, Integer durationMinutes,
+            LocalDateTime startTime, LocalDateTime endTime) {
+        public static ExamRef of(Exam e) {
+            return new ExamRef(e.getId(), e.getTitle(), e.getSubject(), e.getDurationMinutes(),
+                    e.getStartTime(), e.getEndTime());
+        }
+    }
+
+    public static ResultView of(Result r) {
+        return new ResultView(r.getId(), UserView.of(r.getCandidate()), ExamRef.of(r.getExam()), r.getScore(),
+                r.getTotal(), r.getAttempt(), r.getSubmittedAt(), r.getPercentileRank());
+    }
+}
@@ -0,0 +1,3 @@
+package com.oles.oles.dto;
+public record SubmissionReceipt(String receipt, String status, Long examId, Integer score, Integer total,
+        Double percentileRank, Long resultId) {}
@@ -0,0 +1,9 @@
+package com.oles.oles.dto;
+import com.oles.oles.model.Role;
+import com.oles.oles.model.User;
+// A user as returned by the API: never the password hash
+public record UserView(Long id, String username, String name, String email, Role role) {
+    public static UserView of(User u) {
+        return new UserView(u.getId(), u.getUsername(), u.getName(), u.getEmail(), u.getRole());
+    }
+}
@@ -0,0 +1,79 @@
+package com.oles.oles.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects every request's latency and outcome per endpoint. All samples are kept
+ * (a run is thousands of requests, not millions), so the percentiles are exact.
+ */
+public class LatencyRecorder {
+
+    public record EndpointReport(String endpoint, long requests, long errors, double errorRate,
+            double throughputPerSecond, double p50Ms, double p95Ms, double p99Ms, double maxMs,
+            Map<String, Long> errorsByStatus) {}
+
+    private static final class Series {
+        private long[] nanos = new long[1024];
+        private int count;
+        private long errors;
+        private final Map<String, Long> errorsByStatus = new TreeMap<>();
+
+        synchronized void add(long elapsed, String error) {
+            if (count == nanos.length)
+                nanos = Arrays.copyOf(nanos, count * 2);
+            nanos[count++] = elapsed;
+            if (error != null) {
+                errors++;
+                errorsByStatus.merge(error, 1L, Long::sum);
+            }
+        }
+    }
+
+    private final Map<String, Series> series = new LinkedHashMap<>();
+
+    /** Endpoints are reported in the order given here. */
+    public LatencyRecorder(String... endpoints) {
+        for (String e : endpoints)
+            series.put(e, new Series());
+    }
+
+    /** @param error null for success, otherwise the HTTP status or exception name */
+    public void record(String endpoint, long elapsedNanos, String error) {
+        Series s = series.get(endpoint);
+        if (s == null)
+            throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+        s.add(elapsedNanos, error);
+    }
+
+    public List<EndpointReport> report(double elapsedSeconds) {
+        List<EndpointReport> out = new ArrayList<>(series.size());
+        series.forEach((name, s) -> {
+            synchronized (s) {
+                long[] sorted = Arrays.copyOf(s.nanos, s.count);
+                Arrays.sort(sorted);
+                out.add(new EndpointReport(name, s.count, s.errors, s.count == 0 ? 0 : (double) s.errors / s.count,
+                        elapsedSeconds > 0 ? s.count / elapsedSeconds : 0, millis(percentile(sorted, 50)),
+                        millis(percentile(sorted, 95)), millis(percentile(sorted, 99)),
+                        millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]), new TreeMap<>(s.errorsByStatus)));
+            }
+        });
+        return out;
+    }
+
+    // Nearest-rank percentile over sorted samples
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0)
+            return 0;
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(rank, sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,236 @@
+package com.oles.oles.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one simulated candidate per thread through the real HTTP flow: register, login,
+ * catalog, paper, autosaves, submit. Candidates start evenly over the ramp-up; one whose
+ * register or login fails stops there, like a candidate who cannot get in.
+ */
+class LoadGenerator {
+
+    static final String REGISTER = "register", LOGIN = "login", CATALOG = "catalog", PAPER = "paper",
+            AUTOSAVE = "autosave", SUBMIT = "submit";
+    private static final int MAX_ATTEMPTS = 10;
+
+    private final LoadScenario scenario;
+    private final URI base;
+    private final Long examId;
+    private final ObjectMapper mapper;
+    private final HttpClient http;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final LatencyRecorder recorder = new LatencyRecorder(REGISTER, LOGIN, CATALOG, PAPER, AUTOSAVE, SUBMIT);
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger abandoned = new AtomicInteger();
+
+    LoadGenerator(LoadScenario scenario, URI base, Long examId, ObjectMapper mapper) {
+        this.scenario = scenario;
+        this.base = base;
+        this.examId = examId;
+        this.mapper = mapper;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(scenario.requestTimeout())
+                .build();
+    }
+
+    LatencyRecorder recorder() {
+        return recorder;
+    }
+
+    int completed() {
+        return completed.get();
+    }
+
+    int abandoned() {
+        return abandoned.get();
+    }
+
+    static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /** Blocks until every candidate has finished; returns the wall time in nanoseconds. */
+    long run() throws InterruptedException {
+        long start = System.nanoTime();
+        long rampNanos = scenario.rampUp().toNanos();
+        ExecutorService pool = candidateThreads();
+        for (int i = 0; i < scenario.candidates(); i++) {
+            int n = i;
+            long at = start + rampNanos * i / scenario.candidates();
+            pool.execute(() -> {
+                try {
+                    sleepUntil(at);
+                    if (sit(n))
+                        completed.incrementAndGet();
+                    else
+                        abandoned.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        return System.nanoTime() - start;
+    }
+
+    // One thread per candidate: virtual on Java 21+, where the build's Java 17 API has no factory for them
+    private static ExecutorService candidateThreads() {
+        if (virtualThreadsAvailable()) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // fall through
+            }
+        }
+        return Executors.newCachedThreadPool();
+    }
+
+    private boolean sit(int n) throws InterruptedException {
+        String username = "lt-" + runId + "-" + n;
+        String password = "Load@" + n;
+        Map<String, String> user = Map.of("username", username, "password", password, "name", "Candidate " + n,
+                "email", username + "@loadtest.oles");
+        if (send(REGISTER, post("/api/auth/register", user, null)) == null)
+            return false;
+        think();
+        JsonNode auth = send(LOGIN, post("/api/auth/login", Map.of("username", username, "password", password), null));
+        if (auth == null)
+            return false;
+        String token = auth.path("token").asText();
+        think();
+        send(CATALOG, get("/api/candidate/exams", token, username));
+        think();
+        JsonNode paper = send(PAPER, get("/api/candidate/exams/" + examId, token, username));
+        if (paper == null)
+            return false;
+
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode q : paper.path("questions"))
+            ids.add(q.path("id").asLong());
+        Map<Long, Integer> answers = new HashMap<>();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        for (int a = 0; a < scenario.autosaves(); a++) {
+            think();
+            Map<Long, Integer> changed = new HashMap<>();
+            for (int k = a; k < ids.size(); k += scenario.autosaves())
+                changed.put(ids.get(k), 1 + rnd.nextInt(4));
+            answers.putAll(changed);
+            send(AUTOSAVE, put("/api/candidate/exams/" + examId + "/autosave", changed, token, username));
+        }
+        for (Long id : ids)
+            answers.putIfAbsent(id, 1 + rnd.nextInt(4));
+        think();
+        HttpRequest submit = request("/api/candidate/exams/" + examId + "/submit", token, username)
+                .header("Idempotency-Key", username)
+                .POST(json(answers))
+                .build();
+        return send(SUBMIT, submit) != null;
+    }
+
+    // Null on failure (already recorded); an empty node for empty bodies.
+    // A 429 is recorded and retried after its Retry-After, as the exam page does.
+    private JsonNode send(String endpoint, HttpRequest req) throws InterruptedException {
+        for (int attempt = 1;; attempt++) {
+            long t0 = System.nanoTime();
+            HttpResponse<byte[]> res = exchange(endpoint, req, t0);
+            if (res == null || res.statusCode() != 429 || attempt == MAX_ATTEMPTS)
+                return read(endpoint, res, System.nanoTime() - t0);
+            recorder.record(endpoint, System.nanoTime() - t0, "429");
+            long wait = res.headers().firstValueAsLong("Retry-After").orElse(1);
+            Thread.sleep(TimeUnit.SECONDS.toMillis(wait));
+        }
+    }
+
+    private HttpResponse<byte[]> exchange(String endpoint, HttpRequest req, long t0) throws InterruptedException {
+        try {
+            return http.send(req, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - t0, e.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    private JsonNode read(String endpoint, HttpResponse<byte[]> res, long elapsed) {
+        if (res == null)
+            return null;
+        try {
+            if (res.statusCode() >= 400) {
+                recorder.record(endpoint, elapsed, String.valueOf(res.statusCode()));
+                return null;
+            }
+            recorder.record(endpoint, elapsed, null);
+            return res.body().length == 0 ? mapper.createObjectNode() : mapper.readTree(res.body());
+        } catch (IOException e) {
+            recorder.record(endpoint, elapsed, e.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    private HttpRequest get(String path, String token, String username) {
+        return request(path, token, username).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body, String token) {
+        return post(path, body, token, null);
+    }
+
+    private HttpRequest post(String path, Object body, String token, String username) {
+        return request(path, token, username).POST(json(body)).build();
+    }
+
+    private HttpRequest put(String path, Object body, String token, String username) {
+        return request(path, token, username).PUT(json(body)).build();
+    }
+
+    private HttpRequest.Builder request(String path, String token, String username) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(base.resolve(path))
+                .timeout(scenario.requestTimeout())
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+        if (token != null)
+            b.header("Authorization", "Bearer " + token);
+        if (username != null)
+            b.header("X-User", username);
+        return b;
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void think() throws InterruptedException {
+        long ms = scenario.thinkTimeMs();
+        if (scenario.thinkTimeJitterMs() > 0)
+            ms += ThreadLocalRandom.current().nextLong(scenario.thinkTimeJitterMs() + 1);
+        if (ms > 0)
+            Thread.sleep(ms);
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long wait = nanoTime - System.nanoTime();
+        if (wait > 0)
+            TimeUnit.NANOSECONDS.sleep(wait);
+    }
+}
@@ -0,0 +1,30 @@
+package com.oles.oles.loadtest;
+
+import java.time.Duration;
+import java.util.Properties;
+
+/** One load-test run, read from a scenario properties file (see backend/loadtest/*.properties). */
+public record LoadScenario(int candidates, Duration rampUp, long thinkTimeMs, long thinkTimeJitterMs,
+        int questions, int autosaves, Duration requestTimeout, String report) {
+
+    public LoadScenario {
+        if (candidates < 1)
+            throw new IllegalArgumentException("candidates must be at least 1");
+        if (questions < 1)
+            throw new IllegalArgumentException("questions must be at least 1");
+        if (thinkTimeMs < 0 || thinkTimeJitterMs < 0 || autosaves < 0)
+            throw new IllegalArgumentException("think times and autosaves cannot be negative");
+    }
+
+    public static LoadScenario from(Properties p) {
+        return new LoadScenario(
+                Integer.parseInt(p.getProperty("candidates", "100").trim()),
+                Duration.ofSeconds(Long.parseLong(p.getProperty("ramp-up-seconds", "10").trim())),
+                Long.parseLong(p.getProperty("think-time-ms", "200").trim()),
+                Long.parseLong(p.getProperty("think-time-jitter-ms", "300").trim()),
+                Integer.parseInt(p.getProperty("questions", "50").trim()),
+                Integer.parseInt(p.getProperty("autosaves", "0").trim()),
+                Duration.ofSeconds(Long.parseLong(p.getProperty("request-timeout-seconds", "30").trim())),
+                p.getProperty("report", "target/loadtest/report.json").trim());
+    }
+}
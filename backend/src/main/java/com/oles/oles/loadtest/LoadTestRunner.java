@@ -0,0 +1,154 @@
+package com.oles.oles.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.oles.oles.dto.AssemblyRequest;
+import com.oles.oles.model.Exam;
+import com.oles.oles.model.Question;
+import com.oles.oles.repo.ExamRepository;
+import com.oles.oles.repo.QuestionRepository;
+import com.oles.oles.service.ExamChanges;
+import com.oles.oles.service.ExamService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Drives the "loadtest" profile: once the app is up on its embedded database, seeds an
+ * exam, runs the scenario against the app's own port, reports per-endpoint throughput,
+ * latency percentiles and error rates, then shuts the app down.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestRunner {
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+    private static final String SUBJECT = "Load test";
+
+    public record Report(LoadScenario scenario, String requestThreads, String generatorThreads, int javaVersion,
+            double wallSeconds, int completed, int abandoned, List<LatencyRecorder.EndpointReport> endpoints) {}
+
+    private final QuestionRepository questions;
+    private final ExamRepository exams;
+    private final ExamService examService;
+    private final ExamChanges changes;
+    private final ObjectMapper mapper;
+    private final ResourceLoader resources;
+    private final Environment env;
+    private final String scenarioLocation;
+    private final boolean exit;
+
+    public LoadTestRunner(QuestionRepository questions, ExamRepository exams, ExamService examService,
+            ExamChanges changes, ObjectMapper mapper, ResourceLoader resources, Environment env,
+            @Value("${oles.loadtest.scenario}") String scenarioLocation,
+            @Value("${oles.loadtest.exit:true}") boolean exit) {
+        this.questions = questions;
+        this.exams = exams;
+        this.examService = examService;
+        this.changes = changes;
+        this.mapper = mapper;
+        this.resources = resources;
+        this.env = env;
+        this.scenarioLocation = scenarioLocation;
+        this.exit = exit;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run(ApplicationReadyEvent event) throws Exception {
+        ApplicationContext ctx = event.getApplicationContext();
+        LoadScenario scenario = load(scenarioLocation);
+        int port = ((WebServerApplicationContext) ctx).getWebServer().getPort();
+        Long examId = seed(scenario);
+        log.info("Load test: {} candidates over {}s against exam {} ({} questions) on port {}",
+                scenario.candidates(), scenario.rampUp().toSeconds(), examId, scenario.questions(), port);
+
+        LoadGenerator generator = new LoadGenerator(scenario, URI.create("http://localhost:" + port), examId, mapper);
+        double seconds = generator.run() / 1e9;
+        boolean virtual = LoadGenerator.virtualThreadsAvailable();
+        boolean virtualRequests = virtual && env.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        Report report = new Report(scenario, virtualRequests ? "virtual" : "platform",
+                virtual ? "virtual" : "platform", Runtime.version().feature(), Math.round(seconds * 1000) / 1000.0,
+                generator.completed(), generator.abandoned(), generator.recorder().report(seconds));
+        log.info(format(report));
+        write(report, Path.of(scenario.report()));
+
+        if (exit) {
+            int code = report.abandoned() == 0 ? 0 : 1;
+            System.exit(SpringApplication.exit(ctx, () -> code));
+        }
+    }
+
+    private LoadScenario load(String location) throws IOException {
+        Resource r = resources.getResource(location);
+        if (!r.exists())
+            throw new IllegalStateException("Scenario file not found: " + location
+                    + " (set --oles.loadtest.scenario=file:<path>)");
+        Properties p = new Properties();
+        try (InputStream in = r.getInputStream()) {
+            p.load(in);
+        }
+        return LoadScenario.from(p);
+    }
+
+    // A fresh exam open for the whole run, with its own subject so the sample data is not mixed in
+    private Long seed(LoadScenario s) {
+        List<Question> qs = new ArrayList<>(s.questions());
+        for (int i = 1; i <= s.questions(); i++)
+            qs.add(new Question(SUBJECT, "Load test question " + i + ": which option is correct?",
+                    "Option A" + i, "Option B" + i, "Option C" + i, "Option D" + i, 1 + i % 4));
+        changes.questionsCreated(questions.saveAll(qs));
+        LocalDateTime now = LocalDateTime.now();
+        Exam exam = exams.save(new Exam("Load test sitting", SUBJECT, 120, now.minusMinutes(5), now.plusHours(6)));
+        changes.examCreated(exam.getId());
+        examService.assemble(exam.getId(), new AssemblyRequest(SUBJECT, s.questions(), null));
+        return exam.getId();
+    }
+
+    private void write(Report report, Path file) {
+        try {
+            if (file.getParent() != null)
+                Files.createDirectories(file.getParent());
+            mapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+            log.info("Report written to {}", file.toAbsolutePath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String format(Report r) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%nLoad test finished in %.1fs: %d candidates submitted, %d abandoned "
+                + "(requests on %s threads, Java %d)%n", r.wallSeconds(), r.completed(), r.abandoned(),
+                r.requestThreads(), r.javaVersion()));
+        sb.append(String.format("%-10s %9s %8s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors",
+                "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (LatencyRecorder.EndpointReport e : r.endpoints()) {
+            sb.append(String.format("%-10s %9d %7.2f%% %9.1f %9.2f %9.2f %9.2f %9.2f", e.endpoint(), e.requests(),
+                    e.errorRate() * 100, e.throughputPerSecond(), e.p50Ms(), e.p95Ms(), e.p99Ms(), e.maxMs()));
+            if (!e.errorsByStatus().isEmpty())
+                sb.append("  ").append(e.errorsByStatus());
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
@@ -1,12 +1,16 @@
 package com.oles.oles.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "exam")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "exams")
 public class Exam {
 
     @Id
@@ -19,7 +23,9 @@ public class Exam {
     private LocalDateTime startTime;
     private LocalDateTime endTime;
 
+    // Cached as question ids; the questions themselves come from the "questions" region
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "exam-questions")
     private List<Question> questions = new ArrayList<>();
 
     // --- Constructors ---
@@ -0,0 +1,103 @@
+package com.oles.oles.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Last autosaved answers of an exam in progress, one row per candidate and exam
+@Entity
+@Table(name = "exam_sessions", uniqueConstraints = @UniqueConstraint(columnNames = { "username", "exam_id" }))
+public class ExamSessionSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "exam_id", nullable = false)
+    private Long examId;
+
+    // Same encoding as Result.answers
+    @Column(length = 4000)
+    private byte[] answers;
+
+    private Integer answerLayout;
+
+    // The questions the answers line up with, see AnswerKey.packedIds; null for rows saved before V4
+    @Column(length = 32000)
+    private byte[] questionIds;
+
+    private LocalDateTime updatedAt;
+
+    // --- Constructors ---
+    public ExamSessionSnapshot() {
+    }
+
+    public ExamSessionSnapshot(String username, Long examId, byte[] answers, Integer answerLayout,
+            byte[] questionIds) {
+        this.username = username;
+        this.examId = examId;
+        this.answers = answers;
+        this.answerLayout = answerLayout;
+        this.questionIds = questionIds;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // --- Getters & Setters ---
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public void setExamId(Long examId) {
+        this.examId = examId;
+    }
+
+    public byte[] getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(byte[] answers) {
+        this.answers = answers;
+    }
+
+    public Integer getAnswerLayout() {
+        return answerLayout;
+    }
+
+    public void setAnswerLayout(Integer answerLayout) {
+        this.answerLayout = answerLayout;
+    }
+
+    public byte[] getQuestionIds() {
+        return questionIds;
+    }
+
+    public void setQuestionIds(byte[] questionIds) {
+        this.questionIds = questionIds;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,9 +1,13 @@
 package com.oles.oles.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "questions")
+@Table(name = "questions", indexes = @Index(name = "idx_questions_subject", columnList = "subject, id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "questions")
 public class Question {
 
     @Id
@@ -1,13 +1,23 @@
 package com.oles.oles.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "results")
+@Table(name = "results", indexes = {
+        @Index(name = "idx_results_exam_id", columnList = "exam_id, id"),
+        @Index(name = "idx_results_submitted_at", columnList = "submitted_at"),
+        @Index(name = "idx_results_candidate_id", columnList = "candidate_id, id")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_results_candidate_exam_attempt",
+        columnNames = { "candidate_id", "exam_id", "attempt" }))
 public class Result {
+    public static final int ID_ALLOCATION = 50;
 
+    // Pooled sequence ids (not IDENTITY) so Hibernate can batch result inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "results_seq")
+    @SequenceGenerator(name = "results_seq", sequenceName = "results_seq", allocationSize = Result.ID_ALLOCATION)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -19,6 +29,25 @@ public class Result {
     private Integer score; // number of correct answers
     private Integer total;
 
+    // 1 for the candidate's first submission of this exam, 2 for a retake, ...
+    @Column(nullable = false)
+    private Integer attempt;
+
+    private LocalDateTime submittedAt;
+
+    // One byte per question in answer-key order (0 = unanswered, else chosen 1..4)
+    @JsonIgnore
+    @Column(length = 4000)
+    private byte[] answers;
+
+    // Question layout the answer vector was recorded against, see AnswerKey.layout()
+    @JsonIgnore
+    private Integer answerLayout;
+
+    // Percentile rank within the exam at grading time; returned to the candidate, not stored
+    @Transient
+    private Double percentileRank;
+
     // --- Constructors ---
     public Result() {
     }
@@ -28,6 +57,7 @@ public class Result {
         this.exam = exam;
         this.score = score;
         this.total = total;
+        this.submittedAt = LocalDateTime.now();
     }
 
     // --- Getters & Setters ---
@@ -70,4 +100,44 @@ public class Result {
     public void setTotal(Integer total) {
         this.total = total;
     }
+
+    public Integer getAttempt() {
+        return attempt;
+    }
+
+    public void setAttempt(Integer attempt) {
+        this.attempt = attempt;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public Double getPercentileRank() {
+        return percentileRank;
+    }
+
+    public void setPercentileRank(Double percentileRank) {
+        this.percentileRank = percentileRank;
+    }
+
+    public byte[] getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(byte[] answers) {
+        this.answers = answers;
+    }
+
+    public Integer getAnswerLayout() {
+        return answerLayout;
+    }
+
+    public void setAnswerLayout(Integer answerLayout) {
+        this.answerLayout = answerLayout;
+    }
 }
@@ -1,8 +1,10 @@
 package com.oles.oles.model;
 
+import com.oles.oles.service.UserChangeListener;
 import jakarta.persistence.*;
 
 @Entity
+@EntityListeners(UserChangeListener.class)
 @Table(name = "users")
 public class User {
 
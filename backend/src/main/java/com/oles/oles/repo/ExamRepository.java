@@ -1,4 +1,35 @@
 package com.oles.oles.repo;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.oles.oles.dto.ExamSummary;
 import com.oles.oles.model.Exam;
-public interface ExamRepository extends JpaRepository<Exam, Long> {}
\ No newline at end of file
+public interface ExamRepository extends JpaRepository<Exam, Long> {
+
+    interface AnswerKeyRow {
+        Long getQuestionId();
+        Integer getCorrectIndex();
+    }
+
+    @Query("select q.id as questionId, q.correctIndex as correctIndex from Exam e join e.questions q "
+            + "where e.id = :examId order by q.id")
+    List<AnswerKeyRow> findAnswerKeyRows(@Param("examId") Long examId);
+
+    @Query("select new com.oles.oles.dto.ExamSummary(e.id, e.title, e.subject, e.durationMinutes, "
+            + "e.startTime, e.endTime, size(e.questions)) from Exam e order by e.id")
+    List<ExamSummary> findSummaries();
+
+    @EntityGraph(attributePaths = "questions")
+    Optional<Exam> findWithQuestionsById(Long id);
+
+    // Admin exam list: questions fetched in the same query instead of one lazy load per exam
+    @EntityGraph(attributePaths = "questions")
+    @Query("select e from Exam e order by e.id")
+    List<Exam> findAllWithQuestions();
+
+    List<Exam> findByStartTimeBetween(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,9 @@
+package com.oles.oles.repo;
+
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import com.oles.oles.model.ExamSessionSnapshot;
+
+public interface ExamSessionSnapshotRepository extends JpaRepository<ExamSessionSnapshot, Long> {
+    Optional<ExamSessionSnapshot> findByUsernameAndExamId(String username, Long examId);
+}
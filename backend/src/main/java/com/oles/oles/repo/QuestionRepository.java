@@ -1,7 +1,35 @@
 package com.oles.oles.repo;
 
+import java.util.List;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import com.oles.oles.model.Question;
 
 public interface QuestionRepository extends JpaRepository<Question, Long> {
-}
\ No newline at end of file
+
+    interface SearchRow {
+        Long getId();
+        String getSubject();
+        String getText();
+        String getChoice1();
+        String getChoice2();
+        String getChoice3();
+        String getChoice4();
+    }
+
+    // keyword must already be a lower-case LIKE pattern, or null
+    @Query("select q.id from Question q where q.subject = :subject "
+            + "and (:keyword is null or lower(q.text) like :keyword) order by q.id")
+    List<Long> findIdsForAssembly(@Param("subject") String subject, @Param("keyword") String keyword);
+
+    // Must be consumed inside a transaction and closed; id order lets the search index append
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select q.id as id, q.subject as subject, q.text as text, q.choice1 as choice1, q.choice2 as choice2, "
+            + "q.choice3 as choice3, q.choice4 as choice4 from Question q order by q.id")
+    Stream<SearchRow> streamForSearch();
+}
@@ -1,10 +1,44 @@
 package com.oles.oles.repo;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import com.oles.oles.model.Exam;
 import com.oles.oles.model.Result;
 import com.oles.oles.model.User;
 
 public interface ResultRepository extends JpaRepository<Result, Long> {
+
+    interface ScoreRow {
+        Long getExamId();
+        Integer getScore();
+        Integer getTotal();
+    }
+
     List<Result> findByCandidate(User user);
-}
\ No newline at end of file
+
+    // Both served by the unique (candidate, exam, attempt) index
+    @Query("select coalesce(max(r.attempt), 0) from Result r where r.candidate = :candidate and r.exam = :exam")
+    int findLastAttempt(User candidate, Exam exam);
+
+    Optional<Result> findByCandidateAndExamAndAttempt(User candidate, Exam exam, Integer attempt);
+
+    // Keyset pages: pass the last id of the previous page (0 for the first)
+    @EntityGraph(attributePaths = { "candidate", "exam" })
+    List<Result> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable page);
+
+    @EntityGraph(attributePaths = { "candidate", "exam" })
+    List<Result> findByCandidateAndIdGreaterThanOrderByIdAsc(User user, Long afterId, Pageable page);
+
+    // Must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select r.exam.id as examId, r.score as score, r.total as total from Result r")
+    Stream<ScoreRow> streamScores();
+}
@@ -2,8 +2,14 @@ package com.oles.oles.repo;
 
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.oles.oles.model.Role;
 import com.oles.oles.model.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    @Query("select u.role from User u where u.username = :username")
+    Optional<Role> findRoleByUsername(@Param("username") String username);
+}
@@ -0,0 +1,259 @@
+package com.oles.oles.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for candidate traffic. Every candidate gets a token bucket
+ * (a burst, refilled at a steady rate), and submissions additionally pass a
+ * global gate: a fixed number grade at once and a bounded queue waits behind
+ * them, so the end-of-exam stampede queues here instead of on the connection pool.
+ * Requests that do not fit get an {@link AdmissionRejectedException} with the
+ * time after which a retry should succeed.
+ * <p>
+ * A queued submission holds its request thread while it waits, so on platform
+ * threads the queue is capped to leave at least half of Tomcat's threads for
+ * paper fetches, autosave and login. Only when requests really run on virtual
+ * threads (the property set and Java 21+; older JVMs ignore it) is waiting cheap
+ * and the configured capacity used as is.
+ * <p>
+ * A submission turned away is not forfeited: the time it first arrived is kept,
+ * and the retry that gets in is recorded as submitted at that time, so a
+ * candidate who hit the queue before the deadline is not marked late. That
+ * only holds for a retry within the carry-over window; an older rejection is
+ * dropped rather than lent to a later, unrelated submission.
+ */
+@Service
+public class AdmissionControl {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+
+    /** Request attribute holding the {@link LocalDateTime} a submission is recorded under. */
+    public static final String RECEIVED_AT = "oles.submit.receivedAt";
+
+    public static final String RATE = "user-rate";
+    public static final String QUEUE = "submit-queue";
+
+    public record Stats(int trackedUsers, int submitsInFlight, int submitsQueued, int queueCapacity,
+            long rateLimited, long queueRejected, long carriedOver, double avgSubmitMillis) {}
+
+    private record Pending(String username, Long examId) {}
+
+    // A retry this long after its rejection is a new submission, not the same one coming back
+    static final long CARRY_OVER_MINUTES = 5;
+
+    private final boolean enabled;
+    private final double burst;
+    private final double perSecond;
+    private final int maxTracked;
+    private final int concurrency;
+    private final int queueCapacity;
+    private final long maxWaitMs;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<Pending, LocalDateTime> firstArrival = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder queueRejected = new LongAdder();
+    private final LongAdder carriedOver = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder submitNanos = new LongAdder();
+
+    public AdmissionControl(@Value("${oles.admission.enabled:true}") boolean enabled,
+            @Value("${oles.admission.user.burst:30}") int burst,
+            @Value("${oles.admission.user.per-second:5}") double perSecond,
+            @Value("${oles.admission.user.max-tracked:100000}") int maxTracked,
+            @Value("${oles.admission.submit.concurrency:16}") int concurrency,
+            @Value("${oles.admission.submit.queue-capacity:64}") int queueCapacity,
+            @Value("${oles.admission.submit.max-wait-ms:3000}") long maxWaitMs,
+            @Value("${server.tomcat.threads.max:200}") int requestThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.enabled = enabled;
+        this.burst = burst;
+        this.perSecond = perSecond;
+        this.maxTracked = maxTracked;
+        this.concurrency = concurrency;
+        this.queueCapacity = virtualThreads && Runtime.version().feature() >= 21 ? queueCapacity
+                : capQueue(queueCapacity, concurrency, requestThreads);
+        this.maxWaitMs = maxWaitMs;
+        // Fair, so submissions are graded in arrival order
+        this.permits = new Semaphore(concurrency, true);
+    }
+
+    // Graders and waiters together may hold at most half of the request threads
+    static int capQueue(int queueCapacity, int concurrency, int requestThreads) {
+        int cap = Math.max(0, requestThreads / 2 - concurrency);
+        if (queueCapacity <= cap)
+            return queueCapacity;
+        log.warn("oles.admission.submit.queue-capacity={} would tie up request threads (server.tomcat.threads.max={}, "
+                + "concurrency={}); using {}", queueCapacity, requestThreads, concurrency, cap);
+        return cap;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Takes a token from the candidate's bucket. */
+    public void checkRate(String username) {
+        checkRate(username, System.nanoTime());
+    }
+
+    void checkRate(String username, long now) {
+        long waitNanos = buckets.computeIfAbsent(username, u -> new Bucket(burst, now)).take(now, burst, perSecond);
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            throw new AdmissionRejectedException(RATE, Math.max(1, (long) Math.ceil(waitNanos / 1e9)));
+        }
+        if (buckets.size() > maxTracked)
+            sweep(now);
+    }
+
+    /**
+     * Admits a submission, waiting in the queue for a grading slot if necessary.
+     * The returned ticket must be closed once the submission has been handled.
+     */
+    public Ticket admitSubmit(String username, Long examId) {
+        return admitSubmit(username, examId, LocalDateTime.now());
+    }
+
+    Ticket admitSubmit(String username, Long examId, LocalDateTime arrived) {
+        Pending key = new Pending(username, examId);
+        LocalDateTime earlier = firstArrival.get(key);
+        if (earlier != null && earlier.isBefore(arrived.minusMinutes(CARRY_OVER_MINUTES))) {
+            firstArrival.remove(key, earlier);
+            earlier = null;
+        }
+        // A retry we asked for has already been counted against the bucket
+        if (earlier == null) {
+            try {
+                checkRate(username);
+            } catch (AdmissionRejectedException e) {
+                remember(key, arrived);
+                throw e;
+            }
+        }
+        if (!acquire()) {
+            queueRejected.increment();
+            remember(key, arrived);
+            throw new AdmissionRejectedException(QUEUE, queueRetryAfterSeconds());
+        }
+        // Admitted: the carried-over time is used once, by this submission
+        if (firstArrival.remove(key) != null && earlier != null)
+            carriedOver.increment();
+        return new Ticket(earlier != null && earlier.isBefore(arrived) ? earlier : arrived);
+    }
+
+    // A free slot is taken at once (the timed form never overtakes waiters); otherwise join the queue if there is room
+    private boolean acquire() {
+        try {
+            if (permits.tryAcquire(0, TimeUnit.MILLISECONDS))
+                return true;
+            if (queued.incrementAndGet() > queueCapacity) {
+                queued.decrementAndGet();
+                return false;
+            }
+            try {
+                return permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+            } finally {
+                queued.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public Stats stats() {
+        long done = completed.sum();
+        return new Stats(buckets.size(), concurrency - permits.availablePermits(), queued.get(), queueCapacity,
+                rateLimited.sum(), queueRejected.sum(), carriedOver.sum(),
+                done == 0 ? 0 : submitNanos.sum() / 1e6 / done);
+    }
+
+    private void remember(Pending key, LocalDateTime arrived) {
+        firstArrival.putIfAbsent(key, arrived);
+        if (firstArrival.size() > maxTracked) {
+            LocalDateTime cutoff = LocalDateTime.now().minusMinutes(CARRY_OVER_MINUTES);
+            firstArrival.values().removeIf(t -> t.isBefore(cutoff));
+        }
+    }
+
+    // Time for the queue to drain at the observed grading rate, spread by up to half again
+    // so the rejected wave does not come back in the same second
+    private long queueRetryAfterSeconds() {
+        long done = completed.sum();
+        double avgMs = done == 0 ? 100 : submitNanos.sum() / 1e6 / done;
+        double backlogMs = (queued.get() + concurrency) * avgMs / concurrency;
+        long base = Math.max(1, (long) Math.ceil(backlogMs / 1000));
+        return base + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+
+    // A bucket that has refilled completely is the same as no bucket
+    private void sweep(long now) {
+        long fullAfterNanos = (long) (burst / perSecond * 1e9);
+        buckets.values().removeIf(b -> b.idleSince(now) > fullAfterNanos);
+    }
+
+    /** A grading slot; close it when the submission is done. */
+    public final class Ticket implements AutoCloseable {
+        private final LocalDateTime receivedAt;
+        private final long start = System.nanoTime();
+        private boolean closed;
+
+        private Ticket(LocalDateTime receivedAt) {
+            this.receivedAt = receivedAt;
+        }
+
+        /** When the submission first reached the server, including attempts that were turned away. */
+        public LocalDateTime receivedAt() {
+            return receivedAt;
+        }
+
+        @Override
+        public void close() {
+            if (closed)
+                return;
+            closed = true;
+            submitNanos.add(System.nanoTime() - start);
+            completed.increment();
+            permits.release();
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long last;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.last = now;
+        }
+
+        // 0 when a token was taken, otherwise nanos until one is available
+        synchronized long take(long now, double burst, double perSecond) {
+            tokens = Math.min(burst, tokens + (now - last) / 1e9 * perSecond);
+            last = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / perSecond * 1e9);
+        }
+
+        synchronized long idleSince(long now) {
+            return now - last;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.oles.oles.service;
+
+// Thrown when a candidate request is over its rate or the submit queue is full; mapped to 429 + Retry-After
+public class AdmissionRejectedException extends RuntimeException {
+    private final long retryAfterSeconds;
+    private final String reason;
+
+    public AdmissionRejectedException(String reason, long retryAfterSeconds) {
+        super("Too many requests, retry in " + retryAfterSeconds + "s");
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,133 @@
+package com.oles.oles.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiled answer key for one exam: question ids sorted ascending with the
+ * correct choice (1..4) at the same position. Immutable once built.
+ */
+public final class AnswerKey {
+    private final long[] questionIds;
+    private final byte[] correct;
+    private final int layout;
+
+    AnswerKey(long[] questionIds, byte[] correct) {
+        this.questionIds = questionIds;
+        this.correct = correct;
+        this.layout = Arrays.hashCode(questionIds);
+    }
+
+    /**
+     * Hash of the question order of this key, stored with answer vectors so
+     * queries can pick out the ones recorded under it. Different question sets
+     * can share a hash, so two layouts are only the same when
+     * {@link #sameLayout} or {@link #matches} says so.
+     */
+    public int layout() {
+        return layout;
+    }
+
+    /** True when both keys hold the same questions, so a vector from one lines up with the other. */
+    public boolean sameLayout(AnswerKey other) {
+        return other == this || (layout == other.layout && Arrays.equals(questionIds, other.questionIds));
+    }
+
+    // The question ids, 8 bytes each in key order, to store beside a vector
+    public byte[] packedIds() {
+        ByteBuffer b = ByteBuffer.allocate(questionIds.length * Long.BYTES);
+        for (long id : questionIds)
+            b.putLong(id);
+        return b.array();
+    }
+
+    /** True when the stored ids (see {@link #packedIds}) are this key's questions in this order. */
+    public boolean matches(byte[] packedIds) {
+        if (packedIds == null || packedIds.length != questionIds.length * Long.BYTES)
+            return false;
+        ByteBuffer b = ByteBuffer.wrap(packedIds);
+        for (long id : questionIds)
+            if (b.getLong() != id)
+                return false;
+        return true;
+    }
+
+    public int total() {
+        return questionIds.length;
+    }
+
+    public boolean contains(long questionId) {
+        return Arrays.binarySearch(questionIds, questionId) >= 0;
+    }
+
+    // Position of the question in the key, or -1 if it is not part of the exam
+    public int indexOf(long questionId) {
+        int i = Arrays.binarySearch(questionIds, questionId);
+        return i >= 0 ? i : -1;
+    }
+
+    public long questionIdAt(int index) {
+        return questionIds[index];
+    }
+
+    public int correctAt(int index) {
+        return correct[index];
+    }
+
+    /**
+     * Packs answers into one byte per question in key order: 0 for no answer,
+     * otherwise the chosen index (1..4). Answers to other questions are dropped.
+     */
+    public byte[] encode(Map<Long, Integer> answers) {
+        byte[] vector = new byte[questionIds.length];
+        if (answers == null)
+            return vector;
+        for (Map.Entry<Long, Integer> a : answers.entrySet()) {
+            Long qid = a.getKey();
+            Integer chosen = a.getValue();
+            if (qid == null || chosen == null || chosen < 1 || chosen > Byte.MAX_VALUE)
+                continue;
+            int i = Arrays.binarySearch(questionIds, qid);
+            if (i >= 0)
+                vector[i] = chosen.byteValue();
+        }
+        return vector;
+    }
+
+    // Inverse of encode: question id to chosen index, unanswered questions left out
+    public Map<Long, Integer> decode(byte[] vector) {
+        Map<Long, Integer> answers = new HashMap<>();
+        int n = Math.min(vector.length, questionIds.length);
+        for (int i = 0; i < n; i++)
+            if (vector[i] != 0)
+                answers.put(questionIds[i], (int) vector[i]);
+        return answers;
+    }
+
+    public int scoreVector(byte[] vector) {
+        int score = 0;
+        int n = Math.min(vector.length, correct.length);
+        for (int i = 0; i < n; i++)
+            if (vector[i] != 0 && vector[i] == correct[i])
+                score++;
+        return score;
+    }
+
+    public int score(Map<Long, Integer> answers) {
+        if (answers == null || answers.isEmpty())
+            return 0;
+        int score = 0;
+        for (Map.Entry<Long, Integer> a : answers.entrySet()) {
+            Long qid = a.getKey();
+            Integer chosen = a.getValue();
+            if (qid == null || chosen == null)
+                continue;
+            int i = Arrays.binarySearch(questionIds, qid);
+            if (i >= 0 && chosen == correct[i])
+                score++;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,81 @@
+package com.oles.oles.service;
+
+import com.oles.oles.repo.ExamRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one compiled {@link AnswerKey} per exam so that grading a submission
+ * never has to load the exam's questions. Admin writes that change an exam's
+ * questions must call one of the invalidate methods.
+ */
+@Service
+public class AnswerKeyCache {
+    private final ExamRepository exams;
+    private final Map<Long, AnswerKey> keys = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public AnswerKeyCache(ExamRepository exams) {
+        this.exams = exams;
+    }
+
+    public AnswerKey get(Long examId) {
+        AnswerKey key = keys.get(examId);
+        if (key != null)
+            return key;
+        long stamp = generation.get();
+        key = compile(examId);
+        // No questions: an unknown exam id, or an exam still being assembled. Not kept, so ids
+        // that never existed do not pile up and the first question added is seen straight away
+        if (key.total() == 0)
+            return key;
+        keys.putIfAbsent(examId, key);
+        // An invalidation raced with the compile; drop what we may have cached
+        if (generation.get() != stamp)
+            keys.remove(examId, key);
+        return key;
+    }
+
+    public void invalidate(Long examId) {
+        generation.incrementAndGet();
+        keys.remove(examId);
+    }
+
+    // A question can belong to several exams, so drop every key that holds it
+    public void invalidateQuestion(Long questionId) {
+        generation.incrementAndGet();
+        keys.values().removeIf(k -> k.contains(questionId));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        keys.clear();
+    }
+
+    private AnswerKey compile(Long examId) {
+        List<ExamRepository.AnswerKeyRow> rows = exams.findAnswerKeyRows(examId);
+        long[] ids = new long[rows.size()];
+        byte[] correct = new byte[rows.size()];
+        int n = 0;
+        for (ExamRepository.AnswerKeyRow row : rows) {
+            long id = row.getQuestionId();
+            // rows are ordered by question id; skip a question attached twice
+            if (n > 0 && ids[n - 1] == id)
+                continue;
+            ids[n] = id;
+            Integer c = row.getCorrectIndex();
+            correct[n] = c == null ? 0 : c.byteValue();
+            n++;
+        }
+        if (n < ids.length) {
+            ids = Arrays.copyOf(ids, n);
+            correct = Arrays.copyOf(correct, n);
+        }
+        return new AnswerKey(ids, correct);
+    }
+}
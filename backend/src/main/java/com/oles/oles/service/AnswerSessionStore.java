@@ -0,0 +1,251 @@
+package com.oles.oles.service;
+
+import com.oles.oles.model.ExamSessionSnapshot;
+import com.oles.oles.repo.ExamSessionSnapshotRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * In-progress exam answers, kept in memory per (candidate, exam) so autosave
+ * on every click costs a few atomic writes. Changed sessions are written to
+ * exam_sessions in one batch per flush interval; a candidate who reconnects
+ * is resumed from memory or, after a restart, from that snapshot.
+ * <p>
+ * The keys that have a snapshot are loaded at startup and kept up to date as
+ * snapshots are written and deleted, so a session that was never autosaved
+ * (most submits on a busy exam) starts empty without querying the table.
+ */
+@Service
+public class AnswerSessionStore {
+
+    public record SessionKey(String username, Long examId) {}
+
+    private record Deletion(SessionKey key, Long snapshotId) {}
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerSessionStore.class);
+
+    // Key and slots are swapped together when the exam's questions change
+    private record State(AnswerKey key, AtomicIntegerArray choices) {
+        byte[] vector() {
+            byte[] v = new byte[choices.length()];
+            for (int i = 0; i < v.length; i++)
+                v[i] = (byte) choices.get(i);
+            return v;
+        }
+    }
+
+    // One slot per question in answer-key order, same encoding as Result.answers
+    private static final class Session {
+        volatile State state;
+        volatile Long snapshotId;
+        volatile long touchedAt = System.currentTimeMillis();
+
+        Session(AnswerKey key, byte[] vector, Long snapshotId) {
+            this.state = new State(key, slots(key, vector));
+            this.snapshotId = snapshotId;
+        }
+
+        static AtomicIntegerArray slots(AnswerKey key, byte[] vector) {
+            AtomicIntegerArray c = new AtomicIntegerArray(key.total());
+            if (vector != null)
+                for (int i = 0; i < Math.min(vector.length, key.total()); i++)
+                    c.set(i, vector[i]);
+            return c;
+        }
+    }
+
+    private final AnswerKeyCache answerKeys;
+    private final ExamSessionSnapshotRepository snapshots;
+    private final JdbcTemplate jdbc;
+    private final ReadRouting routing;
+    private final long idleMs;
+    private final Map<SessionKey, Session> sessions = new ConcurrentHashMap<>();
+    private final Set<SessionKey> dirty = ConcurrentHashMap.newKeySet();
+    // Keys with a row in exam_sessions; only these are worth looking up when not in memory
+    private final Set<SessionKey> persisted = ConcurrentHashMap.newKeySet();
+    private final Queue<Deletion> deletions = new ConcurrentLinkedQueue<>();
+
+    public AnswerSessionStore(AnswerKeyCache answerKeys, ExamSessionSnapshotRepository snapshots, JdbcTemplate jdbc,
+            ReadRouting routing, @Value("${oles.autosave.idle-eviction-minutes:360}") long idleMinutes) {
+        this.answerKeys = answerKeys;
+        this.snapshots = snapshots;
+        this.jdbc = jdbc;
+        this.routing = routing;
+        this.idleMs = TimeUnit.MINUTES.toMillis(idleMinutes);
+    }
+
+    @PostConstruct
+    void load() {
+        persisted.addAll(jdbc.query("select username, exam_id from exam_sessions",
+                (rs, n) -> new SessionKey(rs.getString(1), rs.getLong(2))));
+        log.info("{} saved exam sessions can be resumed", persisted.size());
+    }
+
+    /** Merges the given answers into the session (null clears a question) and returns how many are set. */
+    public int save(String username, Long examId, Map<Long, Integer> answers) {
+        SessionKey k = new SessionKey(username, examId);
+        Session s = session(k);
+        State st = s.state;
+        AnswerKey key = st.key();
+        AtomicIntegerArray choices = st.choices();
+        for (Map.Entry<Long, Integer> a : answers.entrySet()) {
+            if (a.getKey() == null)
+                continue;
+            int i = key.indexOf(a.getKey());
+            Integer chosen = a.getValue();
+            if (i >= 0 && (chosen == null || (chosen >= 0 && chosen <= Byte.MAX_VALUE)))
+                choices.set(i, chosen == null ? 0 : chosen);
+        }
+        s.touchedAt = System.currentTimeMillis();
+        dirty.add(k);
+        int answered = 0;
+        for (int i = 0; i < choices.length(); i++)
+            if (choices.get(i) != 0)
+                answered++;
+        return answered;
+    }
+
+    public Map<Long, Integer> resume(String username, Long examId) {
+        State st = session(new SessionKey(username, examId)).state;
+        return st.key().decode(st.vector());
+    }
+
+    /**
+     * The saved answers as a vector under the given key, all unanswered when
+     * nothing was saved. A session only on disk is loaded back into memory, and
+     * stays until {@link #discard} is called once the result is stored, so a
+     * failed submit loses nothing.
+     */
+    public byte[] answers(String username, Long examId, AnswerKey key) {
+        State st = session(new SessionKey(username, examId)).state;
+        byte[] v = st.vector();
+        return st.key().sameLayout(key) ? v : key.encode(st.key().decode(v));
+    }
+
+    /** Drops the session and its snapshot after the candidate's result has been persisted. */
+    public void discard(String username, Long examId) {
+        SessionKey k = new SessionKey(username, examId);
+        Session s = sessions.remove(k);
+        persisted.remove(k);
+        dirty.remove(k);
+        if (s != null && s.snapshotId != null)
+            deletions.add(new Deletion(k, s.snapshotId));
+    }
+
+    public int activeSessions() {
+        return sessions.size();
+    }
+
+    /** Open sessions per exam, counted in one pass. */
+    public Map<Long, Integer> activeSessionsByExam() {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (SessionKey k : sessions.keySet())
+            counts.merge(k.examId(), 1, Integer::sum);
+        return counts;
+    }
+
+    // Runs without a request user, so whoever's snapshot was written is reported to read routing
+    // afterwards; otherwise a resume could load a replica's older (or already deleted) snapshot.
+    @Scheduled(fixedDelayString = "${oles.autosave.flush-interval-ms:5000}")
+    public void flush() {
+        Set<String> wrote = new HashSet<>();
+        List<Object[]> updates = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Iterator<SessionKey> it = dirty.iterator(); it.hasNext();) {
+            SessionKey k = it.next();
+            // Remove before reading so a concurrent save marks it dirty again
+            it.remove();
+            Session s = sessions.get(k);
+            if (s == null)
+                continue;
+            State st = s.state;
+            byte[] v = st.vector();
+            if (s.snapshotId == null) {
+                try {
+                    s.snapshotId = snapshots.save(new ExamSessionSnapshot(k.username(), k.examId(), v,
+                            st.key().layout(), st.key().packedIds())).getId();
+                } catch (RuntimeException e) {
+                    log.warn("Could not save session snapshot for {}/{}", k.username(), k.examId(), e);
+                    dirty.add(k);
+                    continue;
+                }
+                wrote.add(k.username());
+                persisted.add(k);
+                // Submitted while we were inserting: the snapshot is already stale
+                if (!sessions.containsKey(k)) {
+                    persisted.remove(k);
+                    deletions.add(new Deletion(k, s.snapshotId));
+                }
+            } else {
+                updates.add(new Object[] { v, st.key().layout(), st.key().packedIds(), now, s.snapshotId });
+                wrote.add(k.username());
+            }
+        }
+        if (!updates.isEmpty())
+            jdbc.batchUpdate("update exam_sessions set answers = ?, answer_layout = ?, question_ids = ?, updated_at = ?"
+                    + " where id = ?", updates);
+        List<Object[]> deletes = new ArrayList<>();
+        for (Deletion d; (d = deletions.poll()) != null;) {
+            deletes.add(new Object[] { d.snapshotId() });
+            wrote.add(d.key().username());
+        }
+        if (!deletes.isEmpty())
+            jdbc.batchUpdate("delete from exam_sessions where id = ?", deletes);
+        wrote.forEach(routing::wrote);
+        long cutoff = System.currentTimeMillis() - idleMs;
+        sessions.entrySet().removeIf(e -> e.getValue().touchedAt < cutoff && !dirty.contains(e.getKey()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private Session session(SessionKey k) {
+        AnswerKey current = answerKeys.get(k.examId());
+        Session s = sessions.get(k);
+        if (s == null) {
+            Optional<ExamSessionSnapshot> snap = persisted.contains(k)
+                    ? snapshots.findByUsernameAndExamId(k.username(), k.examId())
+                    : Optional.empty();
+            byte[] v = snap.filter(x -> layoutMatches(x, current)).map(ExamSessionSnapshot::getAnswers).orElse(null);
+            Session loaded = new Session(current, v, snap.map(ExamSessionSnapshot::getId).orElse(null));
+            s = sessions.putIfAbsent(k, loaded);
+            if (s == null)
+                s = loaded;
+        }
+        if (!s.state.key().sameLayout(current)) {
+            // The exam's questions changed mid-sitting: carry answers over by question id
+            synchronized (s) {
+                State old = s.state;
+                if (!old.key().sameLayout(current)) {
+                    byte[] moved = current.encode(old.key().decode(old.vector()));
+                    s.state = new State(current, Session.slots(current, moved));
+                    dirty.add(k);
+                }
+            }
+        }
+        return s;
+    }
+
+    // Rows saved before question ids were stored only have the layout hash to go on
+    private static boolean layoutMatches(ExamSessionSnapshot snap, AnswerKey key) {
+        if (snap.getAnswers() == null || !Objects.equals(snap.getAnswerLayout(), key.layout()))
+            return false;
+        return snap.getQuestionIds() == null || key.matches(snap.getQuestionIds());
+    }
+}
@@ -1,5 +1,7 @@
 package com.oles.oles.service;
 
+import com.oles.oles.dto.AssemblyRequest;
+import com.oles.oles.dto.AssemblyResult;
 import com.oles.oles.model.*;
 import com.oles.oles.repo.ExamRepository;
 import com.oles.oles.repo.QuestionRepository;
@@ -28,6 +30,12 @@ public class DataInitializationService implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private ExamChanges changes;
+
     @Override
     @Transactional
     public void run(String... args) throws Exception {
@@ -39,11 +47,12 @@ public class DataInitializationService implements CommandLineRunner {
             createSampleQuestions();
         }
         if (examRepository.count() == 0) {
-            createSampleExams();
+            // Attach questions to the new exams based on subject; later changes go through ExamService
+            for (Exam exam : createSampleExams()) {
+                AssemblyResult r = examService.assemble(exam.getId(), new AssemblyRequest(null, null, null));
+                System.out.println("Attached " + r.total() + " questions to exam: " + exam.getTitle());
+            }
         }
-        
-        // Attach questions to exams based on subject
-        attachQuestionsToExams();
     }
 
     private void createSampleUsers() {
@@ -79,17 +88,12 @@ public class DataInitializationService implements CommandLineRunner {
         Question q5 = new Question("English", "Which of the following is a noun?", "run", "quickly", "book", "beautifully", 3);
         Question q6 = new Question("English", "What is the plural of 'child'?", "childs", "children", "childes", "child", 2);
 
-        questionRepository.save(q1);
-        questionRepository.save(q2);
-        questionRepository.save(q3);
-        questionRepository.save(q4);
-        questionRepository.save(q5);
-        questionRepository.save(q6);
+        changes.questionsCreated(questionRepository.saveAll(List.of(q1, q2, q3, q4, q5, q6)));
 
         System.out.println("Created sample questions");
     }
 
-    private void createSampleExams() {
+    private List<Exam> createSampleExams() {
         Exam mathExam = new Exam("Math Basics", "Mathematics", 30, 
             LocalDateTime.of(2024, 1, 1, 9, 0), 
             LocalDateTime.of(2024, 12, 31, 23, 59));
@@ -102,33 +106,9 @@ public class DataInitializationService implements CommandLineRunner {
             LocalDateTime.of(2024, 1, 1, 9, 0),
             LocalDateTime.of(2024, 12, 31, 23, 59));
 
-        examRepository.save(mathExam);
-        examRepository.save(scienceExam);
-        examRepository.save(englishExam);
+        List<Exam> exams = examRepository.saveAll(List.of(mathExam, scienceExam, englishExam));
 
         System.out.println("Created sample exams");
-    }
-
-    private void attachQuestionsToExams() {
-        List<Exam> exams = examRepository.findAll();
-        List<Question> questions = questionRepository.findAll();
-
-        for (Exam exam : exams) {
-            // Clear existing questions first
-            exam.getQuestions().clear();
-            
-            // Add questions that match the exam subject
-            for (Question question : questions) {
-                if (question.getSubject().equals(exam.getSubject())) {
-                    exam.getQuestions().add(question);
-                }
-            }
-            
-            // Save the exam with attached questions
-            if (!exam.getQuestions().isEmpty()) {
-                examRepository.save(exam);
-                System.out.println("Attached " + exam.getQuestions().size() + " questions to exam: " + exam.getTitle());
-            }
-        }
+        return exams;
     }
 }
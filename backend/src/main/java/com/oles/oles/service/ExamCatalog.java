@@ -0,0 +1,53 @@
+package com.oles.oles.service;
+
+import com.oles.oles.dto.ExamSummary;
+import com.oles.oles.repo.ExamRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Candidate-facing exam list. The summaries are loaded with one query and
+ * kept until an admin change bumps the version; the ETag is derived from the
+ * version, so conditional requests are answered without touching the database.
+ */
+@Service
+public class ExamCatalog {
+
+    public record Snapshot(String etag, List<ExamSummary> exams) {}
+
+    private final ExamRepository exams;
+    // Keeps ETags from an earlier run from matching after a restart
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public ExamCatalog(ExamRepository exams) {
+        this.exams = exams;
+    }
+
+    public String etag() {
+        return etag(version.get());
+    }
+
+    public Snapshot current() {
+        Snapshot s = snapshot;
+        long v = version.get();
+        if (s != null && s.etag().equals(etag(v)))
+            return s;
+        s = new Snapshot(etag(v), List.copyOf(exams.findSummaries()));
+        // Only publish if nothing changed while we were loading
+        if (version.get() == v)
+            snapshot = s;
+        return s;
+    }
+
+    public void changed() {
+        version.incrementAndGet();
+    }
+
+    private String etag(long v) {
+        return "\"catalog-" + boot + "-" + v + "\"";
+    }
+}
@@ -0,0 +1,96 @@
+package com.oles.oles.service;
+
+import com.oles.oles.model.Question;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Single place the admin write endpoints report exam and question changes to,
+ * so every in-memory view derived from them is invalidated together.
+ * Inside a transaction the invalidation waits for the commit: done earlier, a
+ * concurrent reader could rebuild a cache from the old rows and keep it.
+ */
+@Service
+public class ExamChanges {
+    private final AnswerKeyCache answerKeys;
+    private final ExamCatalog catalog;
+    private final ExamPaperCache papers;
+    private final SecondLevelCache entities;
+    private final ReadRouting reads;
+    private final QuestionSearchIndex search;
+
+    public ExamChanges(AnswerKeyCache answerKeys, ExamCatalog catalog, ExamPaperCache papers,
+            SecondLevelCache entities, ReadRouting reads, QuestionSearchIndex search) {
+        this.answerKeys = answerKeys;
+        this.catalog = catalog;
+        this.papers = papers;
+        this.entities = entities;
+        this.reads = reads;
+        this.search = search;
+    }
+
+    public void examCreated(Long examId) {
+        afterCommit(() -> {
+            reads.sharedDataChanged();
+            catalog.changed();
+        });
+    }
+
+    public void examChanged(Long examId) {
+        afterCommit(() -> {
+            reads.sharedDataChanged();
+            entities.evictExam(examId);
+            answerKeys.invalidate(examId);
+            papers.invalidate(examId);
+            catalog.changed();
+        });
+    }
+
+    // New questions belong to no exam yet, so only the search index cares
+    public void questionsCreated(List<Question> questions) {
+        afterCommit(() -> {
+            reads.sharedDataChanged();
+            search.putAll(questions);
+        });
+    }
+
+    public void questionChanged(Question question) {
+        Long questionId = question.getId();
+        afterCommit(() -> {
+            reads.sharedDataChanged();
+            entities.evictQuestion(questionId);
+            answerKeys.invalidateQuestion(questionId);
+            papers.invalidateQuestion(questionId);
+            search.put(question);
+        });
+    }
+
+    public void questionDeleted(Long questionId) {
+        afterCommit(() -> {
+            reads.sharedDataChanged();
+            entities.evictQuestion(questionId);
+            entities.evictQuestionLists();
+            answerKeys.invalidateQuestion(questionId);
+            papers.invalidateQuestion(questionId);
+            search.remove(questionId);
+            // question counts in the catalog may have dropped
+            catalog.changed();
+        });
+    }
+
+    private static void afterCommit(Runnable invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidation.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidation.run();
+            }
+        });
+    }
+}
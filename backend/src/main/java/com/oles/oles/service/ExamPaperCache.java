@@ -0,0 +1,243 @@
+package com.oles.oles.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oles.oles.dto.CandidatePaper;
+import com.oles.oles.model.Exam;
+import com.oles.oles.model.Question;
+import com.oles.oles.repo.ExamRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Candidate exam papers (questions and choices, never the answers) rendered
+ * to JSON once and kept as plain and gzip bytes with strong ETags, plus the
+ * per-question pieces so a shuffled copy is just a reordered byte copy.
+ * Admin changes to the exam or any of its questions drop the rendered paper.
+ */
+@Service
+public class ExamPaperCache {
+
+    /** Per-candidate ordering applied while writing a paper; see {@link PaperShuffle}. */
+    public interface Ordering {
+        // Paper positions in the order they should be written
+        int[] questionOrder(int questions);
+
+        // Original choice index (0..3) to show at each display position for this question
+        int[] choiceOrder(long questionId);
+    }
+
+    public static final class RenderedPaper {
+        private static final byte[][] CHOICE_FIELDS = {
+                ",\"choice1\":".getBytes(StandardCharsets.UTF_8), ",\"choice2\":".getBytes(StandardCharsets.UTF_8),
+                ",\"choice3\":".getBytes(StandardCharsets.UTF_8), ",\"choice4\":".getBytes(StandardCharsets.UTF_8) };
+
+        private final byte[] plain;
+        private final byte[] gzip;
+        private final String etag;
+        private final long[] questionIds;
+        // Pieces the plain bytes were assembled from, kept so a reordered copy needs no serialization
+        private final byte[] head;
+        private final long[] paperOrder;
+        private final byte[][] questionHeads;
+        private final byte[][][] choices;
+
+        RenderedPaper(byte[] head, long[] paperOrder, byte[][] questionHeads, byte[][][] choices) {
+            this.head = head;
+            this.paperOrder = paperOrder;
+            this.questionHeads = questionHeads;
+            this.choices = choices;
+            this.plain = assemble(null);
+            this.gzip = ExamPaperCache.gzip(plain);
+            this.etag = digest(plain);
+            this.questionIds = Arrays.stream(paperOrder).sorted().toArray();
+        }
+
+        // The arrays are shared by every response; callers must not modify them
+        public byte[] plain() {
+            return plain;
+        }
+
+        public byte[] gzip() {
+            return gzip;
+        }
+
+        public String etag() {
+            return "\"" + etag + "\"";
+        }
+
+        public String gzipEtag() {
+            return "\"" + etag + "-gz\"";
+        }
+
+        public String etag(String variant) {
+            return "\"" + etag + "-" + variant + "\"";
+        }
+
+        /** Writes the paper with questions and choices in the given order: a byte copy per piece. */
+        public byte[] assemble(Ordering ordering) {
+            int n = paperOrder.length;
+            int[] order = ordering == null ? null : ordering.questionOrder(n);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(plain == null ? 1024 : plain.length);
+            out.writeBytes(head);
+            for (int i = 0; i < n; i++) {
+                int q = order == null ? i : order[i];
+                if (i > 0)
+                    out.write(',');
+                out.writeBytes(questionHeads[q]);
+                int[] co = ordering == null ? null : ordering.choiceOrder(paperOrder[q]);
+                for (int d = 0; d < 4; d++) {
+                    out.writeBytes(CHOICE_FIELDS[d]);
+                    out.writeBytes(choices[q][co == null ? d : co[d]]);
+                }
+                out.write('}');
+            }
+            out.write(']');
+            out.write('}');
+            return out.toByteArray();
+        }
+
+        boolean contains(long questionId) {
+            return Arrays.binarySearch(questionIds, questionId) >= 0;
+        }
+    }
+
+    private final ExamRepository exams;
+    private final ObjectMapper mapper;
+    private final Map<Long, RenderedPaper> papers = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public ExamPaperCache(ExamRepository exams, ObjectMapper mapper) {
+        this.exams = exams;
+        this.mapper = mapper;
+    }
+
+    public RenderedPaper get(Long examId) {
+        RenderedPaper p = papers.get(examId);
+        if (p != null)
+            return p;
+        long stamp = generation.get();
+        p = render(exams.findWithQuestionsById(examId).orElseThrow());
+        papers.putIfAbsent(examId, p);
+        if (generation.get() != stamp)
+            papers.remove(examId, p);
+        return p;
+    }
+
+    public void invalidate(Long examId) {
+        generation.incrementAndGet();
+        papers.remove(examId);
+    }
+
+    public void invalidateQuestion(Long questionId) {
+        generation.incrementAndGet();
+        papers.values().removeIf(p -> p.contains(questionId));
+    }
+
+    private RenderedPaper render(Exam e) {
+        List<Question> questions = e.getQuestions();
+        CandidatePaper paper = new CandidatePaper(e.getId(), e.getTitle(), e.getSubject(), e.getDurationMinutes(),
+                e.getStartTime(), e.getEndTime(), List.of());
+        try {
+            // questions is the last component, so the empty paper ends in "[]}": keep everything before "]}"
+            byte[] empty = mapper.writeValueAsBytes(paper);
+            byte[] head = Arrays.copyOf(empty, empty.length - 2);
+            long[] ids = new long[questions.size()];
+            byte[][] heads = new byte[questions.size()][];
+            byte[][][] choices = new byte[questions.size()][][];
+            for (int i = 0; i < questions.size(); i++) {
+                Question q = questions.get(i);
+                ids[i] = q.getId();
+                heads[i] = questionHead(q);
+                choices[i] = new byte[][] { mapper.writeValueAsBytes(q.getChoice1()),
+                        mapper.writeValueAsBytes(q.getChoice2()), mapper.writeValueAsBytes(q.getChoice3()),
+                        mapper.writeValueAsBytes(q.getChoice4()) };
+            }
+            return new RenderedPaper(head, ids, heads, choices);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // {"id":..,"subject":..,"text":.. (left open for the choices), matching CandidateQuestion's field order
+    private byte[] questionHead(Question q) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(128);
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(buf)) {
+            gen.writeStartObject();
+            gen.writeObjectField("id", q.getId());
+            gen.writeStringField("subject", q.getSubject());
+            gen.writeStringField("text", q.getText());
+            gen.flush();
+            byte[] head = buf.toByteArray();
+            gen.writeEndObject();
+            return head;
+        }
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip: listed (or covered by "*")
+     * with a q-value above zero. An explicit gzip entry wins over "*".
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+        Boolean wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase();
+            boolean allowed = quality(params) > 0;
+            if (coding.equals("gzip") || coding.equals("x-gzip"))
+                return allowed;
+            if (coding.equals("*"))
+                wildcard = allowed;
+        }
+        return wildcard != null && wildcard;
+    }
+
+    // q defaults to 1; one that does not parse counts as 0
+    private static double quality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String p = params[i].trim();
+            if (p.length() > 1 && (p.charAt(0) == 'q' || p.charAt(0) == 'Q') && p.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(p.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    public static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(data.length / 3 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(buf)) {
+            gz.write(data);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return buf.toByteArray();
+    }
+
+    static String digest(byte[] data) {
+        try {
+            byte[] sha = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(sha, 0, 16);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
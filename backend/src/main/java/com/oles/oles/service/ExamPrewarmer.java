@@ -0,0 +1,245 @@
+package com.oles.oles.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oles.oles.model.Exam;
+import com.oles.oles.model.Role;
+import com.oles.oles.model.User;
+import com.oles.oles.repo.ExamRepository;
+import com.oles.oles.repo.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Gets the server ready for an exam shortly before it opens: loads the paper,
+ * answer key and catalog into memory, then sends catalog, paper and submit
+ * requests to this server over loopback as a probe candidate, so the security
+ * filters, admission, controllers and serialisation are JIT-compiled before
+ * the first real candidate arrives. The probe's submissions are graded but
+ * never stored, and the probe account cannot log in or be registered by anyone
+ * else. Probe requests are recognised by a secret generated at startup that
+ * only this process knows, together with the probe's authenticated name; a
+ * client-supplied X-User never counts.
+ * <p>
+ * A warm-up is thousands of blocking requests, so it runs on its own thread;
+ * the scheduled scan only hands it over, leaving the shared scheduler free for
+ * autosave flushes, live feeds and replica checks right when an exam opens.
+ */
+@Service
+public class ExamPrewarmer {
+
+    public record WarmReport(Long examId, String title, LocalDateTime startTime, LocalDateTime warmedAt,
+            int questions, int iterations, int requests, int failures, long millis) {}
+
+    private static final Logger log = LoggerFactory.getLogger(ExamPrewarmer.class);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    // Not a BCrypt hash, so no password ever matches it
+    private static final String NO_PASSWORD = "!";
+    private static final String PROBE_HEADER = "X-Prewarm-Probe";
+
+    private final ExamRepository exams;
+    private final UserRepository users;
+    private final AnswerKeyCache answerKeys;
+    private final ExamPaperCache papers;
+    private final ExamCatalog catalog;
+    private final JwtService jwt;
+    private final ObjectMapper mapper;
+    private final long leadMinutes;
+    private final int iterations;
+    private final String probe;
+    private final byte[] secret;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(TIMEOUT)
+            .build();
+    private final Map<Long, WarmReport> warmed = new ConcurrentHashMap<>();
+    // Exams handed to the worker and not finished yet, so a slow warm-up is not queued twice
+    private final Set<Long> warming = ConcurrentHashMap.newKeySet();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "exam-prewarm");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile int port;
+
+    public ExamPrewarmer(ExamRepository exams, UserRepository users, AnswerKeyCache answerKeys,
+            ExamPaperCache papers, ExamCatalog catalog, JwtService jwt, ObjectMapper mapper,
+            @Value("${oles.prewarm.lead-minutes:10}") long leadMinutes,
+            @Value("${oles.prewarm.iterations:5000}") int iterations,
+            @Value("${oles.prewarm.probe-username:oles-prewarm}") String probe) {
+        this.exams = exams;
+        this.users = users;
+        this.answerKeys = answerKeys;
+        this.papers = papers;
+        this.catalog = catalog;
+        this.jwt = jwt;
+        this.mapper = mapper;
+        this.leadMinutes = leadMinutes;
+        this.iterations = iterations;
+        this.probe = probe;
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        this.secret = Base64.getUrlEncoder().withoutPadding().encodeToString(random).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // The application's own port; the management server has a namespace and is ignored
+    @EventListener
+    public void onServerStarted(WebServerInitializedEvent event) {
+        if (event.getApplicationContext().getServerNamespace() == null)
+            port = event.getWebServer().getPort();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * True for requests sent by the prewarm probe, whose submissions must not be stored:
+     * they carry this process's secret and are authenticated as the probe account.
+     */
+    public boolean isProbe(HttpServletRequest req) {
+        String header = req.getHeader(PROBE_HEADER);
+        if (header == null || !MessageDigest.isEqual(secret, header.getBytes(StandardCharsets.UTF_8)))
+            return false;
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && probe.equals(auth.getName());
+    }
+
+    /** The probe's username is not available for registration (case-insensitively, like the column). */
+    public boolean isReserved(String username) {
+        return username != null && probe.equalsIgnoreCase(username.trim());
+    }
+
+    @Scheduled(fixedDelayString = "${oles.prewarm.scan-interval-ms:60000}")
+    public void scan() {
+        // Nothing to send requests to until the web server is listening
+        if (port <= 0)
+            return;
+        LocalDateTime now = LocalDateTime.now();
+        for (Exam e : exams.findByStartTimeBetween(now, now.plusMinutes(leadMinutes))) {
+            WarmReport done = warmed.get(e.getId());
+            if ((done == null || !e.getStartTime().equals(done.startTime())) && warming.add(e.getId())) {
+                worker.execute(() -> {
+                    try {
+                        warm(e);
+                    } catch (RuntimeException ex) {
+                        log.warn("Prewarm of exam {} failed", e.getId(), ex);
+                    } finally {
+                        warming.remove(e.getId());
+                    }
+                });
+            }
+        }
+    }
+
+    public WarmReport warm(Exam e) {
+        long start = System.nanoTime();
+        papers.get(e.getId());
+        AnswerKey key = answerKeys.get(e.getId());
+        catalog.current();
+        int[] counts = exercise(e.getId(), key);
+        WarmReport report = new WarmReport(e.getId(), e.getTitle(), e.getStartTime(), LocalDateTime.now(),
+                key.total(), iterations, counts[0], counts[1], (System.nanoTime() - start) / 1_000_000);
+        warmed.put(e.getId(), report);
+        log.info("Prewarmed exam {} ({} questions, {} requests, {} failed) in {} ms", e.getId(), key.total(),
+                counts[0], counts[1], report.millis());
+        return report;
+    }
+
+    public List<WarmReport> reports() {
+        List<WarmReport> list = new ArrayList<>(warmed.values());
+        list.sort(Comparator.comparing(WarmReport::warmedAt).reversed());
+        return list;
+    }
+
+    // Catalog, paper (gzip and plain) and submit through the full HTTP stack; returns {requests, failures}
+    private int[] exercise(Long examId, AnswerKey key) {
+        int requests = 0, failures = 0;
+        if (port <= 0)
+            return new int[] { requests, failures };
+        Map<Long, Integer> answers = new HashMap<>();
+        for (int i = 0; i < key.total(); i++)
+            answers.put(key.questionIdAt(i), 1 + (i & 3));
+        String base = "http://127.0.0.1:" + port + "/api/candidate/exams";
+        String token = "Bearer " + jwt.generate(probeUser().getUsername(), Role.CANDIDATE.name());
+        try {
+            String body = mapper.writeValueAsString(answers);
+            List<HttpRequest> round = List.of(
+                    get(base, token).build(),
+                    get(base + "/" + examId, token).header("Accept-Encoding", "gzip").build(),
+                    get(base + "/" + examId, token).build(),
+                    request(base + "/" + examId + "/submit", token)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build());
+            for (int n = 0; n < iterations; n++) {
+                for (HttpRequest r : round) {
+                    requests++;
+                    if (http.send(r, HttpResponse.BodyHandlers.discarding()).statusCode() >= 300)
+                        failures++;
+                }
+                // Every request failing means the path is broken, not cold: stop instead of hammering it
+                if (n == 0 && failures == round.size()) {
+                    log.warn("Prewarm requests for exam {} are all failing; stopping", examId);
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            log.debug("Prewarm exercise stopped early", ex);
+            failures++;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return new int[] { requests, failures };
+    }
+
+    // An account someone registered under the name before it was reserved is taken back and locked
+    private User probeUser() {
+        User u = users.findByUsername(probe).orElse(null);
+        if (u == null)
+            return users.save(new User(probe, NO_PASSWORD, "Prewarm probe", null, Role.CANDIDATE));
+        if (!NO_PASSWORD.equals(u.getPassword()) || u.getRole() != Role.CANDIDATE) {
+            log.warn("Locking account {} for the prewarm probe", probe);
+            u.setPassword(NO_PASSWORD);
+            u.setRole(Role.CANDIDATE);
+            u = users.save(u);
+        }
+        return u;
+    }
+
+    private HttpRequest.Builder get(String uri, String token) {
+        return request(uri, token).GET();
+    }
+
+    private HttpRequest.Builder request(String uri, String token) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .timeout(TIMEOUT)
+                .header("Authorization", token)
+                .header(PROBE_HEADER, new String(secret, StandardCharsets.UTF_8))
+                .header("X-User", probe);
+    }
+}
@@ -0,0 +1,76 @@
+package com.oles.oles.service;
+
+import com.oles.oles.dto.AssemblyRequest;
+import com.oles.oles.dto.AssemblyResult;
+import com.oles.oles.model.Exam;
+import com.oles.oles.repo.ExamRepository;
+import com.oles.oles.repo.QuestionRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Rule-based exam assembly. Candidate questions come from an indexed lookup
+ * on subject (plus optional keyword), the exam's current membership is
+ * diffed against the rule, and only the rows that change are written to
+ * exam_questions. Members that still satisfy the rule are kept.
+ */
+@Service
+public class ExamService {
+    private final ExamRepository exams;
+    private final QuestionRepository questions;
+    private final JdbcTemplate jdbc;
+    private final ExamChanges changes;
+
+    public ExamService(ExamRepository exams, QuestionRepository questions, JdbcTemplate jdbc, ExamChanges changes) {
+        this.exams = exams;
+        this.questions = questions;
+        this.jdbc = jdbc;
+        this.changes = changes;
+    }
+
+    @Transactional
+    public AssemblyResult assemble(Long examId, AssemblyRequest rule) {
+        Exam exam = exams.findById(examId).orElseThrow();
+        String subject = rule.subject() != null && !rule.subject().isBlank() ? rule.subject() : exam.getSubject();
+        String keyword = rule.keyword() == null || rule.keyword().isBlank() ? null
+                : "%" + rule.keyword().toLowerCase() + "%";
+        List<Long> eligible = questions.findIdsForAssembly(subject, keyword);
+        int limit = rule.count() == null ? eligible.size() : Math.max(0, Math.min(rule.count(), eligible.size()));
+
+        Set<Long> current = new LinkedHashSet<>();
+        for (ExamRepository.AnswerKeyRow row : exams.findAnswerKeyRows(examId))
+            current.add(row.getQuestionId());
+
+        // Keep current members that still qualify, then fill up in id order
+        Set<Long> target = new LinkedHashSet<>();
+        for (Long id : eligible)
+            if (target.size() < limit && current.contains(id))
+                target.add(id);
+        for (Long id : eligible) {
+            if (target.size() >= limit)
+                break;
+            target.add(id);
+        }
+
+        List<Object[]> removals = new ArrayList<>();
+        for (Long id : current)
+            if (!target.contains(id))
+                removals.add(new Object[] { examId, id });
+        List<Object[]> additions = new ArrayList<>();
+        for (Long id : target)
+            if (!current.contains(id))
+                additions.add(new Object[] { examId, id });
+
+        if (!removals.isEmpty())
+            jdbc.batchUpdate("delete from exam_questions where exam_id = ? and questions_id = ?", removals);
+        if (!additions.isEmpty())
+            jdbc.batchUpdate("insert into exam_questions (exam_id, questions_id) values (?, ?)", additions);
+        if (!removals.isEmpty() || !additions.isEmpty())
+            changes.examChanged(examId);
+        return new AssemblyResult(examId, current.size() - removals.size(), additions.size(), removals.size(),
+                target.size());
+    }
+}
@@ -0,0 +1,149 @@
+package com.oles.oles.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Classical item analysis over the stored answer vectors of an exam:
+ * difficulty (share answering correctly), point-biserial discrimination
+ * against the total score, and how often each choice was picked. Vectors are
+ * split into chunks and tallied in parallel on the common fork-join pool.
+ */
+@Service
+public class ItemAnalysisService {
+
+    public record ItemStats(Long questionId, int correctIndex, double difficulty, double discrimination,
+            long[] choiceCounts) {}
+
+    public record ItemAnalysis(Long examId, long responses, long skipped, double meanScore, double scoreStddev,
+            List<ItemStats> items) {}
+
+    static final int CHUNK = 4096;
+
+    private final JdbcTemplate jdbc;
+    private final AnswerKeyCache answerKeys;
+
+    public ItemAnalysisService(JdbcTemplate jdbc, AnswerKeyCache answerKeys) {
+        this.jdbc = jdbc;
+        this.answerKeys = answerKeys;
+    }
+
+    public ItemAnalysis analyse(Long examId) {
+        AnswerKey key = answerKeys.get(examId);
+        List<byte[]> vectors = new ArrayList<>();
+        jdbc.query(con -> {
+            var ps = con.prepareStatement("select answers from results where exam_id = ? and answer_layout = ?");
+            ps.setFetchSize(1000);
+            ps.setLong(1, examId);
+            ps.setInt(2, key.layout());
+            return ps;
+        }, rs -> {
+            byte[] v = rs.getBytes(1);
+            if (v != null)
+                vectors.add(v);
+        });
+        Long recorded = jdbc.queryForObject("select count(*) from results where exam_id = ?", Long.class, examId);
+        return analyse(examId, key, vectors, (recorded == null ? 0 : recorded) - vectors.size());
+    }
+
+    static ItemAnalysis analyse(Long examId, AnswerKey key, List<byte[]> vectors, long skipped) {
+        Tally t = ForkJoinPool.commonPool().invoke(new TallyTask(key, vectors, 0, vectors.size()));
+        int k = key.total();
+        long n = t.n;
+        double mean = n == 0 ? 0 : (double) t.sumScore / n;
+        double sd = n == 0 ? 0 : Math.sqrt(Math.max(0, (double) t.sumSquares / n - mean * mean));
+        List<ItemStats> items = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            long right = t.correct[i];
+            double p = n == 0 ? 0 : (double) right / n;
+            double rpb = 0;
+            if (sd > 0 && right > 0 && right < n) {
+                double meanRight = (double) t.sumScoreCorrect[i] / right;
+                double meanWrong = (double) (t.sumScore - t.sumScoreCorrect[i]) / (n - right);
+                rpb = (meanRight - meanWrong) / sd * Math.sqrt(p * (1 - p));
+            }
+            long[] counts = new long[5];
+            System.arraycopy(t.choices, i * 5, counts, 0, 5);
+            items.add(new ItemStats(key.questionIdAt(i), key.correctAt(i), p, rpb, counts));
+        }
+        return new ItemAnalysis(examId, n, skipped, mean, sd, items);
+    }
+
+    // Partial sums for a range of vectors; choices holds 5 counters (unanswered, 1..4) per question
+    static final class Tally {
+        long n;
+        long sumScore;
+        long sumSquares;
+        final long[] correct;
+        final long[] sumScoreCorrect;
+        final long[] choices;
+
+        Tally(int k) {
+            correct = new long[k];
+            sumScoreCorrect = new long[k];
+            choices = new long[k * 5];
+        }
+
+        Tally merge(Tally o) {
+            n += o.n;
+            sumScore += o.sumScore;
+            sumSquares += o.sumSquares;
+            for (int i = 0; i < correct.length; i++) {
+                correct[i] += o.correct[i];
+                sumScoreCorrect[i] += o.sumScoreCorrect[i];
+            }
+            for (int i = 0; i < choices.length; i++)
+                choices[i] += o.choices[i];
+            return this;
+        }
+    }
+
+    static final class TallyTask extends RecursiveTask<Tally> {
+        private final AnswerKey key;
+        private final List<byte[]> vectors;
+        private final int from;
+        private final int to;
+
+        TallyTask(AnswerKey key, List<byte[]> vectors, int from, int to) {
+            this.key = key;
+            this.vectors = vectors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                TallyTask left = new TallyTask(key, vectors, from, mid);
+                left.fork();
+                Tally right = new TallyTask(key, vectors, mid, to).compute();
+                return left.join().merge(right);
+            }
+            int k = key.total();
+            Tally t = new Tally(k);
+            for (int r = from; r < to; r++) {
+                byte[] v = vectors.get(r);
+                int score = key.scoreVector(v);
+                t.n++;
+                t.sumScore += score;
+                t.sumSquares += (long) score * score;
+                int m = Math.min(v.length, k);
+                for (int i = 0; i < k; i++) {
+                    int chosen = i < m ? v[i] : 0;
+                    t.choices[i * 5 + (chosen >= 0 && chosen <= 4 ? chosen : 0)]++;
+                    if (chosen != 0 && chosen == key.correctAt(i)) {
+                        t.correct[i]++;
+                        t.sumScoreCorrect[i] += score;
+                    }
+                }
+            }
+            return t;
+        }
+    }
+}
@@ -9,6 +9,8 @@ import java.util.*;
 @Service
 public class JwtService {
 private final Key key = Keys.hmacShaKeyFor("change-this-secret-key-change-this-secret".getBytes());
+// Built once; the parser is immutable and thread-safe
+private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
 public String generate(String username, String role) {
 return Jwts.builder()
 .setSubject(username)
@@ -18,5 +20,5 @@ return Jwts.builder()
 .signWith(key)
 .compact();
 }
-public Jws<Claims> parse(String token) { return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token); }
-}
\ No newline at end of file
+public Jws<Claims> parse(String token) { return parser.parseClaimsJws(token); }
+}
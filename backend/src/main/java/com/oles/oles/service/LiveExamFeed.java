@@ -0,0 +1,221 @@
+package com.oles.oles.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent events for admins watching an exam: submissions, candidates in
+ * progress and the running score statistics. Once per interval each watched
+ * exam is sampled once from memory (ScoreAggregates, AnswerSessionStore) and
+ * the change is fanned out to every subscriber, so the submit path never
+ * sees the feed. A new subscriber gets a "snapshot" event, then "delta"
+ * events holding only the fields that changed.
+ * <p>
+ * Each subscriber has at most one write in flight, on its own sender thread.
+ * A slow connection skips ticks, and its next delta covers everything it
+ * missed; it never holds up the sampler or the other admins.
+ */
+@Service
+public class LiveExamFeed {
+
+    public record Live(Long examId, long version, long submitted, int inProgress, double mean, double stddev,
+            int min, int max, long[] histogram) {
+
+        boolean sameAs(Live o) {
+            return submitted == o.submitted && inProgress == o.inProgress && mean == o.mean && stddev == o.stddev
+                    && min == o.min && max == o.max && Arrays.equals(histogram, o.histogram);
+        }
+    }
+
+    private record Event(String name, String json) {}
+
+    private static final Event KEEPALIVE = new Event(null, null);
+
+    private final ScoreAggregates aggregates;
+    private final AnswerSessionStore sessions;
+    private final ObjectMapper mapper;
+    private final long timeoutMs;
+    private final long heartbeatMs;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+    private long versions;
+
+    public LiveExamFeed(ScoreAggregates aggregates, AnswerSessionStore sessions, ObjectMapper mapper,
+            @Value("${oles.live.timeout-minutes:30}") long timeoutMinutes,
+            @Value("${oles.live.heartbeat-seconds:15}") long heartbeatSeconds) {
+        this.aggregates = aggregates;
+        this.sessions = sessions;
+        this.mapper = mapper;
+        this.timeoutMs = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.heartbeatMs = TimeUnit.SECONDS.toMillis(heartbeatSeconds);
+        AtomicInteger n = new AtomicInteger();
+        this.senders = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "live-feed-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Opens a stream for the exam; the first event arrives on the next tick. */
+    public SseEmitter subscribe(Long examId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber s = new Subscriber(emitter);
+        channels.compute(examId, (id, c) -> {
+            Channel ch = c != null ? c : new Channel();
+            ch.subscribers.add(s);
+            return ch;
+        });
+        emitter.onCompletion(() -> unsubscribe(examId, s));
+        emitter.onTimeout(() -> unsubscribe(examId, s));
+        emitter.onError(e -> unsubscribe(examId, s));
+        return emitter;
+    }
+
+    public int subscribers() {
+        int total = 0;
+        for (Channel c : channels.values())
+            total += c.subscribers.size();
+        return total;
+    }
+
+    @Scheduled(fixedDelayString = "${oles.live.interval-ms:1000}")
+    public void publish() {
+        if (channels.isEmpty())
+            return;
+        Map<Long, Integer> active = sessions.activeSessionsByExam();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Channel> e : channels.entrySet()) {
+            Channel c = e.getValue();
+            Live latest = sample(e.getKey(), active.getOrDefault(e.getKey(), 0), c.latest);
+            c.latest = latest;
+            // Subscribers that last saw the same version get the same bytes; encode each delta once
+            Map<Long, Event> encoded = new HashMap<>();
+            for (Subscriber s : c.subscribers) {
+                Live seen = s.seen;
+                boolean current = seen != null && seen.version() == latest.version();
+                if (current && now - s.lastSentAt < heartbeatMs)
+                    continue;
+                if (!s.busy.compareAndSet(false, true))
+                    continue;
+                Event event = current ? KEEPALIVE
+                        : encoded.computeIfAbsent(seen == null ? -1 : seen.version(), v -> encode(seen, latest));
+                senders.execute(() -> deliver(e.getKey(), s, latest, event));
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Channel c : channels.values())
+            for (Subscriber s : c.subscribers)
+                s.emitter.complete();
+        senders.shutdownNow();
+    }
+
+    // Score statistics are only rebuilt when a submission came in since the last sample
+    private Live sample(Long examId, int inProgress, Live previous) {
+        long submitted = aggregates.count(examId);
+        Live next;
+        if (previous != null && previous.submitted() == submitted) {
+            next = new Live(examId, previous.version(), submitted, inProgress, previous.mean(), previous.stddev(),
+                    previous.min(), previous.max(), previous.histogram());
+        } else {
+            ScoreAggregates.ExamStats st = aggregates.stats(examId);
+            next = new Live(examId, previous == null ? 0 : previous.version(), st.count(), inProgress, st.mean(),
+                    st.stddev(), st.count() == 0 ? 0 : st.min(), st.count() == 0 ? 0 : st.max(), st.histogram());
+        }
+        if (previous != null && previous.sameAs(next))
+            return previous;
+        return new Live(examId, ++versions, next.submitted(), next.inProgress(), next.mean(), next.stddev(),
+                next.min(), next.max(), next.histogram());
+    }
+
+    private Event encode(Live seen, Live latest) {
+        try {
+            if (seen == null)
+                return new Event("snapshot", mapper.writeValueAsString(latest));
+            Map<String, Object> delta = new LinkedHashMap<>();
+            delta.put("examId", latest.examId());
+            delta.put("version", latest.version());
+            if (seen.submitted() != latest.submitted())
+                delta.put("submitted", latest.submitted());
+            if (seen.inProgress() != latest.inProgress())
+                delta.put("inProgress", latest.inProgress());
+            if (seen.mean() != latest.mean())
+                delta.put("mean", latest.mean());
+            if (seen.stddev() != latest.stddev())
+                delta.put("stddev", latest.stddev());
+            if (seen.min() != latest.min())
+                delta.put("min", latest.min());
+            if (seen.max() != latest.max())
+                delta.put("max", latest.max());
+            if (!Arrays.equals(seen.histogram(), latest.histogram()))
+                delta.put("histogram", latest.histogram());
+            return new Event("delta", mapper.writeValueAsString(delta));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void deliver(Long examId, Subscriber s, Live latest, Event event) {
+        try {
+            if (event == KEEPALIVE)
+                s.emitter.send(SseEmitter.event().comment("keepalive"));
+            else
+                s.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(latest.version()))
+                        .name(event.name())
+                        .data(event.json(), MediaType.APPLICATION_JSON));
+            s.seen = latest;
+            s.lastSentAt = System.currentTimeMillis();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter's callbacks may not fire for a broken pipe
+            unsubscribe(examId, s);
+            s.emitter.completeWithError(e);
+        } finally {
+            s.busy.set(false);
+        }
+    }
+
+    private void unsubscribe(Long examId, Subscriber s) {
+        channels.computeIfPresent(examId, (id, c) -> {
+            c.subscribers.remove(s);
+            return c.subscribers.isEmpty() ? null : c;
+        });
+    }
+
+    private static final class Channel {
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        volatile Live latest;
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean busy = new AtomicBoolean();
+        volatile Live seen;
+        volatile long lastSentAt;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.oles.oles.service;
+
+// Thrown when the password-hashing pool is saturated; mapped to 503 + Retry-After
+public class LoginBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public LoginBusyException(long retryAfterSeconds) {
+        super("Login service busy, retry in " + retryAfterSeconds + "s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
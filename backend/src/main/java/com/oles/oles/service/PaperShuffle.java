@@ -0,0 +1,133 @@
+package com.oles.oles.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic per-candidate question and choice order. Everything is
+ * derived from a seed of (candidate, exam), so nothing per candidate is
+ * stored: the paper is reordered while it is written and submitted choice
+ * numbers are mapped back to the original ones before grading. A question's
+ * choice order depends only on the seed and its id, not on its position.
+ * <p>
+ * Anyone who knows the secret can work out every candidate's order, so with
+ * shuffling on the application refuses to start without a real one.
+ */
+@Service
+public class PaperShuffle {
+    static final String PLACEHOLDER_SECRET = "change-this-shuffle-secret";
+
+    private final boolean enabled;
+    private final byte[] secret;
+
+    public PaperShuffle(@Value("${oles.shuffle.enabled:false}") boolean enabled,
+            @Value("${oles.shuffle.secret:}") String secret) {
+        if (enabled && (secret == null || secret.isBlank() || PLACEHOLDER_SECRET.equals(secret.trim())))
+            throw new IllegalStateException(
+                    "oles.shuffle.enabled is true but no oles.shuffle.secret is set; provide one through OLES_SHUFFLE_SECRET");
+        this.enabled = enabled;
+        this.secret = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** The ordering for one candidate, or null when shuffling is off or the candidate is unknown. */
+    public ExamPaperCache.Ordering ordering(String username, Long examId) {
+        if (!enabled || username == null)
+            return null;
+        long seed = seed(username, examId);
+        return new ExamPaperCache.Ordering() {
+            @Override
+            public int[] questionOrder(int questions) {
+                return permutation(new SplittableRandom(seed), questions);
+            }
+
+            @Override
+            public int[] choiceOrder(long questionId) {
+                return PaperShuffle.choiceOrder(seed, questionId);
+            }
+        };
+    }
+
+    // Short tag for the candidate's ordering, used to vary the ETag
+    public String variant(String username, Long examId) {
+        return Long.toHexString(seed(username, examId));
+    }
+
+    /** Maps choice numbers (1..4) as the candidate saw them back to the original numbering. */
+    public Map<Long, Integer> toOriginal(String username, Long examId, Map<Long, Integer> answers) {
+        return remap(username, examId, answers, false);
+    }
+
+    /** Maps original choice numbers to the ones this candidate sees. */
+    public Map<Long, Integer> toDisplayed(String username, Long examId, Map<Long, Integer> answers) {
+        return remap(username, examId, answers, true);
+    }
+
+    private Map<Long, Integer> remap(String username, Long examId, Map<Long, Integer> answers, boolean toDisplay) {
+        if (!enabled || username == null || answers == null || answers.isEmpty())
+            return answers;
+        long seed = seed(username, examId);
+        Map<Long, Integer> out = new HashMap<>(answers.size() * 2);
+        for (Map.Entry<Long, Integer> a : answers.entrySet()) {
+            Integer chosen = a.getValue();
+            if (a.getKey() == null || chosen == null || chosen < 1 || chosen > 4) {
+                out.put(a.getKey(), chosen);
+                continue;
+            }
+            int[] order = choiceOrder(seed, a.getKey());
+            if (toDisplay) {
+                for (int d = 0; d < 4; d++)
+                    if (order[d] == chosen - 1)
+                        out.put(a.getKey(), d + 1);
+            } else {
+                out.put(a.getKey(), order[chosen - 1] + 1);
+            }
+        }
+        return out;
+    }
+
+    static int[] choiceOrder(long seed, long questionId) {
+        return permutation(new SplittableRandom(seed ^ (questionId * 0x9E3779B97F4A7C15L)), 4);
+    }
+
+    // Fisher-Yates over 0..n-1
+    static int[] permutation(SplittableRandom rnd, int n) {
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++)
+            p[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = p[i];
+            p[i] = p[j];
+            p[j] = t;
+        }
+        return p;
+    }
+
+    long seed(String username, Long examId) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(secret);
+            md.update(username.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(String.valueOf(examId).getBytes(StandardCharsets.UTF_8));
+            byte[] h = md.digest();
+            long seed = 0;
+            for (int i = 0; i < 8; i++)
+                seed = (seed << 8) | (h[i] & 0xff);
+            return seed;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.oles.oles.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt on a small pool sized to the CPU count instead of on Tomcat
+ * request threads, so a login storm cannot starve exam fetch and submit.
+ * Login gets a future and its request thread is released while the hash
+ * waits. When the pool and its queue are full, or a hash has not started
+ * by the wait timeout, the caller gets a {@link LoginBusyException}; a hash
+ * whose caller has given up is skipped rather than run for nobody.
+ */
+@Service
+public class PasswordHashingExecutor {
+
+    public record Stats(int threads, int active, int queued, int queueCapacity, long completed, long rejected,
+            double avgHashMillis, double maxHashMillis) {}
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor pool;
+    private final int queueCapacity;
+    private final long waitTimeoutMs;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+    public PasswordHashingExecutor(PasswordEncoder encoder,
+            @Value("${oles.auth.hash-pool.threads:0}") int threads,
+            @Value("${oles.auth.hash-pool.queue-capacity:200}") int queueCapacity,
+            @Value("${oles.auth.hash-pool.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.encoder = encoder;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        this.waitTimeoutMs = waitTimeoutMs;
+        AtomicInteger n = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "password-hash-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    public CompletableFuture<Boolean> matches(String raw, String encoded) {
+        return submit(() -> encoder.matches(raw, encoded));
+    }
+
+    // Registration is rare, so it waits on the request thread, never past the wait timeout
+    public String encode(String raw) {
+        try {
+            return submit(() -> encoder.encode(raw)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re)
+                throw re;
+            throw e;
+        }
+    }
+
+    public Stats stats() {
+        long done = completed.sum();
+        return new Stats(pool.getMaximumPoolSize(), pool.getActiveCount(), pool.getQueue().size(), queueCapacity,
+                done, rejected.sum(), done == 0 ? 0 : hashNanos.sum() / 1e6 / done, maxHashNanos.get() / 1e6);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            pool.execute(() -> {
+                // Timed out while queued: the caller has already been told to retry
+                if (result.isDone()) {
+                    rejected.increment();
+                    return;
+                }
+                long start = System.nanoTime();
+                try {
+                    result.complete(work.get());
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    long took = System.nanoTime() - start;
+                    hashNanos.add(took);
+                    maxHashNanos.accumulate(took);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new LoginBusyException(retryAfterSeconds()));
+        }
+        CompletableFuture.delayedExecutor(waitTimeoutMs, TimeUnit.MILLISECONDS)
+                .execute(() -> result.completeExceptionally(new LoginBusyException(retryAfterSeconds())));
+        return result;
+    }
+
+    // Time for the current backlog to clear at the observed hash rate
+    private long retryAfterSeconds() {
+        long done = completed.sum();
+        double avgMs = done == 0 ? 100 : hashNanos.sum() / 1e6 / done;
+        double backlogMs = (pool.getQueue().size() + pool.getActiveCount()) * avgMs / pool.getMaximumPoolSize();
+        return Math.max(1, (long) Math.ceil(backlogMs / 1000));
+    }
+}
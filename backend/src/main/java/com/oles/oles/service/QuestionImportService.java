@@ -0,0 +1,301 @@
+package com.oles.oles.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oles.oles.dto.ImportReport;
+import com.oles.oles.model.Question;
+import com.oles.oles.repo.ExamRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk question-bank import. Rows are parsed one at a time from the request
+ * stream (CSV with a header row, or a JSON array), validated, and inserted in
+ * JDBC batches with one transaction per batch. Bad rows are reported and
+ * skipped; they never abort the load. Imported questions can be attached to
+ * an exam in the same batch.
+ */
+@Service
+public class QuestionImportService {
+    public enum Format { CSV, JSON }
+
+    static final int MAX_ERRORS = 1000;
+
+    private static final String[] COLUMNS = { "subject", "text", "choice1", "choice2", "choice3", "choice4",
+            "correctIndex" };
+    private static final String INSERT_QUESTION = "insert into questions "
+            + "(subject, text, choice1, choice2, choice3, choice4, correct_index) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_LINK = "insert into exam_questions (exam_id, questions_id) values (?, ?)";
+
+    private record Row(long line, String subject, String text, String c1, String c2, String c3, String c4,
+            int correctIndex) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ObjectMapper mapper;
+    private final ExamRepository exams;
+    private final ExamChanges changes;
+
+    public QuestionImportService(JdbcTemplate jdbc, PlatformTransactionManager txManager, ObjectMapper mapper,
+            ExamRepository exams, ExamChanges changes) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.mapper = mapper;
+        this.exams = exams;
+        this.changes = changes;
+    }
+
+    public ImportReport importQuestions(InputStream in, Format format, Long examId, int batchSize)
+            throws IOException {
+        if (examId != null && !exams.existsById(examId))
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No exam " + examId);
+        Load load = new Load(examId, Math.max(1, batchSize));
+        try {
+            if (format == Format.CSV)
+                readCsv(in, load);
+            else
+                readJson(in, load);
+            load.flush();
+        } finally {
+            if (examId != null && load.imported > 0)
+                changes.examChanged(examId);
+        }
+        return new ImportReport(load.imported, load.failed, examId, load.errors, load.failed > load.errors.size());
+    }
+
+    private void readCsv(InputStream in, Load load) throws IOException {
+        BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long line = 0;
+        List<String> header = null;
+        List<String> fields;
+        while ((fields = nextRecord(r)) != null) {
+            line++;
+            if (header == null) {
+                header = fields;
+                continue;
+            }
+            if (fields.size() == 1 && fields.get(0).isBlank())
+                continue;
+            String[] v = new String[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                int at = header.indexOf(COLUMNS[i]);
+                v[i] = at >= 0 && at < fields.size() ? fields.get(at) : null;
+            }
+            load.accept(line, v);
+        }
+    }
+
+    private void readJson(InputStream in, Load load) throws IOException {
+        try (JsonParser p = mapper.getFactory().createParser(in)) {
+            if (p.nextToken() != JsonToken.START_ARRAY)
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expected a JSON array of questions");
+            long row = 0;
+            for (JsonToken t; (t = p.nextToken()) != JsonToken.END_ARRAY && t != null;) {
+                row++;
+                // A stray value is a bad row like any other: skip it (and anything nested in it) and go on
+                if (t != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                    load.error(row, "Expected a question object, found " + describe(t));
+                    continue;
+                }
+                JsonNode n = p.readValueAsTree();
+                String[] v = new String[COLUMNS.length];
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    JsonNode f = n.get(COLUMNS[i]);
+                    v[i] = f == null || f.isNull() ? null : f.asText();
+                }
+                load.accept(row, v);
+            }
+        }
+    }
+
+    private static String describe(JsonToken t) {
+        return switch (t) {
+            case START_ARRAY -> "an array";
+            case VALUE_STRING -> "a string";
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> "a number";
+            case VALUE_TRUE, VALUE_FALSE -> "a boolean";
+            case VALUE_NULL -> "null";
+            default -> t.name();
+        };
+    }
+
+    // Reads one CSV record (RFC 4180 quoting, quoted fields may span lines); null at end of input
+    static List<String> nextRecord(BufferedReader r) throws IOException {
+        String line = r.readLine();
+        if (line == null)
+            return null;
+        List<String> fields = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        cur.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        cur.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(cur.toString());
+                    cur.setLength(0);
+                } else {
+                    cur.append(c);
+                }
+            }
+            if (!quoted)
+                break;
+            line = r.readLine();
+            if (line == null)
+                break;
+            cur.append('\n');
+        }
+        fields.add(cur.toString());
+        return fields;
+    }
+
+    private final class Load {
+        final Long examId;
+        final int batchSize;
+        final List<Row> batch = new ArrayList<>();
+        final List<ImportReport.RowError> errors = new ArrayList<>();
+        int imported;
+        int failed;
+
+        Load(Long examId, int batchSize) {
+            this.examId = examId;
+            this.batchSize = batchSize;
+        }
+
+        void accept(long line, String[] v) {
+            String problem = validate(v);
+            if (problem != null) {
+                error(line, problem);
+                return;
+            }
+            batch.add(new Row(line, v[0].trim(), v[1].trim(), v[2].trim(), v[3].trim(), v[4].trim(), v[5].trim(),
+                    Integer.parseInt(v[6].trim())));
+            if (batch.size() >= batchSize)
+                flush();
+        }
+
+        void error(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_ERRORS)
+                errors.add(new ImportReport.RowError(line, message));
+        }
+
+        void flush() {
+            if (batch.isEmpty())
+                return;
+            try {
+                List<Long> ids = tx.execute(s -> insert(batch, examId));
+                imported += batch.size();
+                changes.questionsCreated(questions(batch, ids));
+            } catch (RuntimeException e) {
+                // The whole chunk rolled back: record it against each row so nothing is lost silently
+                String message = "Insert failed: " + rootMessage(e);
+                for (Row r : batch)
+                    error(r.line(), message);
+            }
+            batch.clear();
+        }
+    }
+
+    private List<Long> insert(List<Row> rows, Long examId) {
+        return jdbc.execute((ConnectionCallback<List<Long>>) con -> {
+            List<Long> ids = new ArrayList<>(rows.size());
+            try (PreparedStatement ps = con.prepareStatement(INSERT_QUESTION, Statement.RETURN_GENERATED_KEYS)) {
+                for (Row r : rows) {
+                    ps.setString(1, r.subject());
+                    ps.setString(2, r.text());
+                    ps.setString(3, r.c1());
+                    ps.setString(4, r.c2());
+                    ps.setString(5, r.c3());
+                    ps.setString(6, r.c4());
+                    ps.setInt(7, r.correctIndex());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next())
+                        ids.add(keys.getLong(1));
+                }
+            }
+            // The keys are needed to link the rows to the exam and to index them for search
+            if (ids.size() != rows.size())
+                throw new IllegalStateException("Driver returned " + ids.size() + " keys for " + rows.size()
+                        + " rows");
+            if (examId != null) {
+                try (PreparedStatement ps = con.prepareStatement(INSERT_LINK)) {
+                    for (Long id : ids) {
+                        ps.setLong(1, examId);
+                        ps.setLong(2, id);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+            return ids;
+        });
+    }
+
+    private static List<Question> questions(List<Row> rows, List<Long> ids) {
+        List<Question> qs = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Row r = rows.get(i);
+            Question q = new Question(r.subject(), r.text(), r.c1(), r.c2(), r.c3(), r.c4(), r.correctIndex());
+            q.setId(ids.get(i));
+            qs.add(q);
+        }
+        return qs;
+    }
+
+    static String validate(String[] v) {
+        for (int i = 0; i < 6; i++)
+            if (v[i] == null || v[i].isBlank())
+                return "Missing " + COLUMNS[i];
+        if (v[1].trim().length() > 1000)
+            return "text is longer than 1000 characters";
+        for (int i = 0; i < 6; i++)
+            if (i != 1 && v[i].trim().length() > 255)
+                return COLUMNS[i] + " is longer than 255 characters";
+        if (v[6] == null || v[6].isBlank())
+            return "Missing correctIndex";
+        try {
+            int c = Integer.parseInt(v[6].trim());
+            if (c < 1 || c > 4)
+                return "correctIndex must be between 1 and 4";
+        } catch (NumberFormatException e) {
+            return "correctIndex is not a number";
+        }
+        return null;
+    }
+
+    private static String rootMessage(Throwable e) {
+        while (e.getCause() != null)
+            e = e.getCause();
+        return e.getMessage();
+    }
+}
@@ -0,0 +1,416 @@
+package com.oles.oles.service;
+
+import com.oles.oles.model.Question;
+import com.oles.oles.repo.QuestionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over question text, subject and choices for the
+ * question-bank search. Built in one streaming pass over the questions table
+ * at startup and kept current through ExamChanges on every question write.
+ * <p>
+ * A term's postings are its question ids in ascending order, stored as varint
+ * deltas followed by one byte holding the fields the term occurs in and how
+ * often, so a dense list costs about two bytes per question. New questions
+ * have the highest id and append in place; an edit or delete re-encodes only
+ * the lists of that question's terms. A search must match every term, walks
+ * the shortest list first, and ranks by tf-idf with a match in the text
+ * worth more than one in the subject, and the subject more than the choices.
+ */
+@Service
+public class QuestionSearchIndex {
+
+    public record Hit(Long id, double score) {}
+
+    public record Page(long total, List<Hit> hits) {}
+
+    public record Stats(int questions, int terms, long postingsBytes) {}
+
+    static final int TEXT = 1;
+    static final int SUBJECT = 2;
+    static final int CHOICES = 4;
+
+    private static final int MAX_TERM_LENGTH = 40;
+    private static final int MAX_COUNT = 31;
+    private static final Page EMPTY = new Page(0, List.of());
+
+    private record Doc(Postings subject, Postings[] terms) {}
+
+    private record Matches(long[] ids, double[] scores, int size) {}
+
+    private final QuestionRepository questions;
+    private final TransactionTemplate tx;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> terms = new HashMap<>();
+    // Exact subject (lower-cased) for the subject filter, apart from the subject's words
+    private final Map<String, Postings> subjects = new HashMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+
+    public QuestionSearchIndex(QuestionRepository questions, PlatformTransactionManager txManager) {
+        this.questions = questions;
+        this.tx = new TransactionTemplate(txManager);
+        this.tx.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void rebuild() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            subjects.clear();
+            docs.clear();
+            tx.executeWithoutResult(s -> {
+                try (Stream<QuestionRepository.SearchRow> rows = questions.streamForSearch()) {
+                    rows.forEach(r -> add(r.getId(), r.getSubject(), r.getText(),
+                            r.getChoice1(), r.getChoice2(), r.getChoice3(), r.getChoice4()));
+                }
+            });
+            // Appending leaves up to half of each list's buffer unused
+            terms.values().forEach(Postings::trim);
+            subjects.values().forEach(Postings::trim);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Indexes a new or edited question, replacing whatever was indexed under its id. */
+    public void put(Question q) {
+        putAll(List.of(q));
+    }
+
+    public void putAll(Collection<Question> qs) {
+        List<Question> sorted = new ArrayList<>(qs);
+        sorted.removeIf(q -> q.getId() == null);
+        sorted.sort(Comparator.comparing(Question::getId));
+        lock.writeLock().lock();
+        try {
+            for (Question q : sorted) {
+                drop(q.getId());
+                add(q.getId(), q.getSubject(), q.getText(),
+                        q.getChoice1(), q.getChoice2(), q.getChoice3(), q.getChoice4());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            drop(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Questions containing every word of {@code query}, best first, optionally
+     * limited to one subject. With only a subject, its questions in id order.
+     */
+    public Page search(String query, String subject, int page, int size) {
+        if (page < 0 || size < 1)
+            throw new IllegalArgumentException("page must be >= 0 and size >= 1");
+        List<String> words = tokenize(query).stream().distinct().toList();
+        String subjectKey = subject == null || subject.isBlank() ? null : subjectKey(subject);
+        if (words.isEmpty() && subjectKey == null)
+            return EMPTY;
+        Matches m;
+        lock.readLock().lock();
+        try {
+            m = match(words, subjectKey);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long from = (long) page * size;
+        if (m == null || from >= m.size())
+            return new Page(m == null ? 0 : m.size(), List.of());
+        return new Page(m.size(), top(m, (int) from, (int) Math.min(m.size(), from + size)));
+    }
+
+    public Stats stats() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Postings p : terms.values())
+                bytes += p.data.length;
+            for (Postings p : subjects.values())
+                bytes += p.data.length;
+            return new Stats(docs.size(), terms.size(), bytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String s) {
+        List<String> out = new ArrayList<>();
+        if (s == null)
+            return out;
+        String lower = s.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                out.add(lower.substring(start, Math.min(i, start + MAX_TERM_LENGTH)));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    private static String subjectKey(String subject) {
+        return subject.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Callers hold the write lock
+    private void add(Long id, String subject, String text, String... choices) {
+        // term -> { fields it occurs in, occurrences }
+        Map<String, int[]> found = new HashMap<>();
+        collect(found, text, TEXT);
+        collect(found, subject, SUBJECT);
+        for (String c : choices)
+            collect(found, c, CHOICES);
+        Postings[] lists = new Postings[found.size()];
+        int i = 0;
+        for (Map.Entry<String, int[]> e : found.entrySet()) {
+            Postings p = terms.computeIfAbsent(e.getKey(), Postings::new);
+            p.add(id, e.getValue()[0] | Math.min(e.getValue()[1], MAX_COUNT) << 3);
+            lists[i++] = p;
+        }
+        Postings bySubject = null;
+        if (subject != null && !subject.isBlank()) {
+            bySubject = subjects.computeIfAbsent(subjectKey(subject), Postings::new);
+            bySubject.add(id, 0);
+        }
+        docs.put(id, new Doc(bySubject, lists));
+    }
+
+    private static void collect(Map<String, int[]> found, String field, int flag) {
+        for (String t : tokenize(field)) {
+            int[] f = found.computeIfAbsent(t, k -> new int[2]);
+            f[0] |= flag;
+            f[1]++;
+        }
+    }
+
+    private void drop(Long id) {
+        Doc d = docs.remove(id);
+        if (d == null)
+            return;
+        for (Postings p : d.terms()) {
+            p.remove(id);
+            if (p.size == 0)
+                terms.remove(p.key, p);
+        }
+        if (d.subject() != null) {
+            d.subject().remove(id);
+            if (d.subject().size == 0)
+                subjects.remove(d.subject().key, d.subject());
+        }
+    }
+
+    // Callers hold the read lock; null when some word or the subject is not indexed at all
+    private Matches match(List<String> words, String subjectKey) {
+        List<Postings> lists = new ArrayList<>(words.size() + 1);
+        for (String w : words) {
+            Postings p = terms.get(w);
+            if (p == null)
+                return null;
+            lists.add(p);
+        }
+        Postings filter = null;
+        if (subjectKey != null) {
+            filter = subjects.get(subjectKey);
+            if (filter == null)
+                return null;
+            lists.add(filter);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+        double[] idf = new double[lists.size()];
+        for (int k = 0; k < idf.length; k++)
+            idf[k] = lists.get(k) == filter ? 0 : Math.log(1 + (double) docs.size() / lists.get(k).size);
+
+        Postings first = lists.get(0);
+        long[] ids = new long[first.size];
+        double[] scores = new double[first.size];
+        int n = 0;
+        for (Cursor c = first.cursor(); c.next();) {
+            ids[n] = c.id;
+            scores[n++] = score(c.payload, idf[0]);
+        }
+        // Intersect the candidates with each longer list in one forward walk
+        for (int k = 1; k < lists.size() && n > 0; k++) {
+            Cursor c = lists.get(k).cursor();
+            boolean more = c.next();
+            int kept = 0;
+            for (int i = 0; i < n && more; i++) {
+                while (more && c.id < ids[i])
+                    more = c.next();
+                if (more && c.id == ids[i]) {
+                    ids[kept] = ids[i];
+                    scores[kept++] = scores[i] + score(c.payload, idf[k]);
+                }
+            }
+            n = kept;
+        }
+        return new Matches(ids, scores, n);
+    }
+
+    private static double score(int payload, double idf) {
+        if (idf == 0)
+            return 0;
+        int fields = payload & 7;
+        double weight = ((fields & TEXT) != 0 ? 3 : 0) + ((fields & SUBJECT) != 0 ? 2 : 0)
+                + ((fields & CHOICES) != 0 ? 1 : 0);
+        return idf * weight * (1 + Math.log(payload >>> 3));
+    }
+
+    // Keeps only the best {@code to} matches in a heap instead of sorting them all
+    private static List<Hit> top(Matches m, int from, int to) {
+        Comparator<Integer> better = (a, b) -> m.scores()[a] != m.scores()[b]
+                ? Double.compare(m.scores()[b], m.scores()[a])
+                : Long.compare(m.ids()[a], m.ids()[b]);
+        PriorityQueue<Integer> worstFirst = new PriorityQueue<>(to + 1, better.reversed());
+        for (int i = 0; i < m.size(); i++) {
+            worstFirst.add(i);
+            if (worstFirst.size() > to)
+                worstFirst.poll();
+        }
+        List<Hit> ranked = new ArrayList<>(to);
+        while (!worstFirst.isEmpty()) {
+            int i = worstFirst.poll();
+            ranked.add(new Hit(m.ids()[i], m.scores()[i]));
+        }
+        Collections.reverse(ranked);
+        return ranked.subList(from, to);
+    }
+
+    private static final class Postings {
+        final String key;
+        byte[] data = new byte[16];
+        int length;
+        int size;
+        long last;
+
+        Postings(String key) {
+            this.key = key;
+        }
+
+        void add(long id, int payload) {
+            if (size == 0 || id > last) {
+                append(id, payload);
+                return;
+            }
+            // An edited question keeps its id, so it lands mid-list
+            long[] ids = new long[size + 1];
+            byte[] payloads = new byte[size + 1];
+            int n = 0;
+            boolean placed = false;
+            for (Cursor c = cursor(); c.next();) {
+                if (!placed && id < c.id) {
+                    ids[n] = id;
+                    payloads[n++] = (byte) payload;
+                    placed = true;
+                }
+                ids[n] = c.id;
+                payloads[n++] = (byte) c.payload;
+            }
+            encode(ids, payloads, n);
+        }
+
+        void remove(long id) {
+            if (size == 0 || id > last)
+                return;
+            long[] ids = new long[size];
+            byte[] payloads = new byte[size];
+            int n = 0;
+            for (Cursor c = cursor(); c.next();) {
+                if (c.id != id) {
+                    ids[n] = c.id;
+                    payloads[n++] = (byte) c.payload;
+                }
+            }
+            if (n != size)
+                encode(ids, payloads, n);
+        }
+
+        Cursor cursor() {
+            return new Cursor(data, length);
+        }
+
+        void trim() {
+            if (data.length > length)
+                data = Arrays.copyOf(data, length);
+        }
+
+        private void encode(long[] ids, byte[] payloads, int n) {
+            data = new byte[n * 2 + 16];
+            length = 0;
+            size = 0;
+            last = 0;
+            for (int i = 0; i < n; i++)
+                append(ids[i], payloads[i] & 0xFF);
+        }
+
+        private void append(long id, int payload) {
+            if (length + 11 > data.length)
+                data = Arrays.copyOf(data, Math.max(length + 11, data.length + (data.length >> 1)));
+            long delta = id - last;
+            while ((delta & ~0x7FL) != 0) {
+                data[length++] = (byte) (delta & 0x7F | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            data[length++] = (byte) payload;
+            last = id;
+            size++;
+        }
+    }
+
+    private static final class Cursor {
+        private final byte[] data;
+        private final int end;
+        private int pos;
+        long id;
+        int payload;
+
+        Cursor(byte[] data, int end) {
+            this.data = data;
+            this.end = end;
+        }
+
+        boolean next() {
+            if (pos >= end)
+                return false;
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            id += delta;
+            payload = data[pos++] & 0xFF;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.oles.oles.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides when a read-only transaction may use a replica (only consulted when replicas
+ * are configured). Reads stay on the primary for a short window after the same user's
+ * own write, and for everyone after an exam or question change, so the shared caches
+ * are never refilled from a replica that has not seen the change yet.
+ * <p>
+ * The window is the longest a replica in rotation can be behind: it lagged at most
+ * max-lag at its last check and may fall further behind until the next one. Writes
+ * made on background threads (write-behind results, autosave flushes) have no request
+ * user, so their owners report them through {@link #wrote}.
+ */
+@Service
+public class ReadRouting {
+    private static final int PRUNE_AT = 50_000;
+
+    private final long windowMs;
+    private final Map<String, Long> lastWrite = new ConcurrentHashMap<>();
+    private volatile long sharedWriteAt;
+
+    public ReadRouting(@Value("${oles.datasource.replica-max-lag-seconds:5}") double maxLagSeconds,
+            @Value("${oles.datasource.replica-check-ms:5000}") long checkMs) {
+        this.windowMs = (long) Math.ceil(maxLagSeconds * 1000) + checkMs;
+    }
+
+    public long windowMs() {
+        return windowMs;
+    }
+
+    public void wrote(String username) {
+        long now = System.currentTimeMillis();
+        lastWrite.put(username, now);
+        if (lastWrite.size() > PRUNE_AT)
+            lastWrite.values().removeIf(t -> t < now - windowMs);
+    }
+
+    public void sharedDataChanged() {
+        sharedWriteAt = System.currentTimeMillis();
+    }
+
+    /** @param username the current user, or null outside an authenticated request */
+    public boolean replicaAllowed(String username) {
+        long since = System.currentTimeMillis() - windowMs;
+        if (sharedWriteAt >= since)
+            return false;
+        if (username == null)
+            return true;
+        Long t = lastWrite.get(username);
+        return t == null || t < since;
+    }
+}
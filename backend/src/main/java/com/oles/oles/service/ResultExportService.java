@@ -0,0 +1,134 @@
+package com.oles.oles.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oles.oles.dto.ResultRow;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams results to an output stream one keyset page at a time, so an export
+ * of any size only ever holds a single page in memory and issues one query
+ * per page (candidate and exam come from the same join).
+ */
+@Service
+public class ResultExportService {
+    public enum Format { NDJSON, CSV }
+
+    private static final int PAGE_SIZE = 1000;
+    private static final String SELECT = "select r.id, r.candidate_id, u.username, r.exam_id, e.title, "
+            + "r.score, r.total, r.submitted_at from results r "
+            + "join users u on u.id = r.candidate_id join exam e on e.id = r.exam_id where r.id > ?";
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper mapper;
+
+    public ResultExportService(JdbcTemplate jdbc, ObjectMapper mapper) {
+        this.jdbc = jdbc;
+        this.mapper = mapper;
+    }
+
+    public void export(OutputStream out, Format format, Long examId, LocalDateTime from, LocalDateTime to)
+            throws IOException {
+        if (format == Format.CSV)
+            exportCsv(out, examId, from, to);
+        else
+            exportNdjson(out, examId, from, to);
+    }
+
+    private void exportNdjson(OutputStream out, Long examId, LocalDateTime from, LocalDateTime to)
+            throws IOException {
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+            gen.setRootValueSeparator(new SerializedString("\n"));
+            long after = 0;
+            List<ResultRow> page;
+            do {
+                page = page(after, examId, from, to);
+                for (ResultRow r : page) {
+                    gen.writeStartObject();
+                    gen.writeNumberField("id", r.id());
+                    gen.writeNumberField("candidateId", r.candidateId());
+                    gen.writeStringField("username", r.username());
+                    gen.writeNumberField("examId", r.examId());
+                    gen.writeStringField("examTitle", r.examTitle());
+                    writeInt(gen, "score", r.score());
+                    writeInt(gen, "total", r.total());
+                    gen.writeStringField("submittedAt", r.submittedAt() == null ? null : r.submittedAt().toString());
+                    gen.writeEndObject();
+                    after = r.id();
+                }
+                gen.flush();
+            } while (page.size() == PAGE_SIZE);
+            gen.writeRaw('\n');
+        }
+    }
+
+    private void exportCsv(OutputStream out, Long examId, LocalDateTime from, LocalDateTime to) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        w.write("id,candidateId,username,examId,examTitle,score,total,submittedAt\n");
+        long after = 0;
+        List<ResultRow> page;
+        do {
+            page = page(after, examId, from, to);
+            for (ResultRow r : page) {
+                w.write(r.id() + "," + r.candidateId() + "," + csv(r.username()) + "," + r.examId() + ","
+                        + csv(r.examTitle()) + "," + nz(r.score()) + "," + nz(r.total()) + ","
+                        + (r.submittedAt() == null ? "" : r.submittedAt().toString()) + "\n");
+                after = r.id();
+            }
+            w.flush();
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    private List<ResultRow> page(long afterId, Long examId, LocalDateTime from, LocalDateTime to) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        if (examId != null) {
+            sql.append(" and r.exam_id = ?");
+            args.add(examId);
+        }
+        if (from != null) {
+            sql.append(" and r.submitted_at >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" and r.submitted_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" order by r.id limit ").append(PAGE_SIZE);
+        return jdbc.query(sql.toString(), (rs, i) -> {
+            Timestamp at = rs.getTimestamp(8);
+            return new ResultRow(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getLong(4), rs.getString(5),
+                    rs.getObject(6, Integer.class), rs.getObject(7, Integer.class),
+                    at == null ? null : at.toLocalDateTime());
+        }, args.toArray());
+    }
+
+    private static void writeInt(JsonGenerator gen, String name, Integer value) throws IOException {
+        if (value == null)
+            gen.writeNullField(name);
+        else
+            gen.writeNumberField(name, value);
+    }
+
+    private static String nz(Integer v) {
+        return v == null ? "" : v.toString();
+    }
+
+    private static String csv(String v) {
+        if (v == null)
+            return "";
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 && v.indexOf('\r') < 0)
+            return v;
+        return '"' + v.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,79 @@
+package com.oles.oles.service;
+
+import com.oles.oles.repo.ResultRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Live per-exam score statistics, updated on every graded submission and
+ * rebuilt from the results table in one streaming pass at startup.
+ */
+@Service
+public class ScoreAggregates {
+
+    public record ExamStats(Long examId, long count, double mean, double variance, double stddev,
+            int min, int max, long[] histogram) {}
+
+    private final ResultRepository results;
+    private final TransactionTemplate tx;
+    private final Map<Long, ScoreDistribution> exams = new ConcurrentHashMap<>();
+
+    public ScoreAggregates(ResultRepository results, PlatformTransactionManager txManager) {
+        this.results = results;
+        this.tx = new TransactionTemplate(txManager);
+        this.tx.setReadOnly(true);
+    }
+
+    // Runs before the web server starts, so no submission can be counted twice
+    @PostConstruct
+    void rebuild() {
+        exams.clear();
+        tx.executeWithoutResult(s -> {
+            try (Stream<ResultRepository.ScoreRow> rows = results.streamScores()) {
+                rows.forEach(r -> distribution(r.getExamId(), r.getTotal())
+                        .add(r.getScore() == null ? 0 : r.getScore()));
+            }
+        });
+    }
+
+    /** Records a graded score and returns its percentile rank within the exam. */
+    public double record(Long examId, int score, int total) {
+        ScoreDistribution d = distribution(examId, total);
+        d.add(score);
+        return d.percentileRank(score);
+    }
+
+    /** Takes back a recorded score whose result could not be stored. */
+    public void forget(Long examId, int score) {
+        ScoreDistribution d = exams.get(examId);
+        if (d != null)
+            d.remove(score);
+    }
+
+    public double percentileRank(Long examId, int score) {
+        ScoreDistribution d = exams.get(examId);
+        return d == null ? 100.0 : d.percentileRank(score);
+    }
+
+    public long count(Long examId) {
+        ScoreDistribution d = exams.get(examId);
+        return d == null ? 0 : d.count();
+    }
+
+    public ExamStats stats(Long examId) {
+        ScoreDistribution d = exams.get(examId);
+        ScoreDistribution.Snapshot s = d == null ? new ScoreDistribution(0).snapshot() : d.snapshot();
+        return new ExamStats(examId, s.count(), s.mean(), s.variance(), Math.sqrt(s.variance()),
+                s.min(), s.max(), s.histogram());
+    }
+
+    private ScoreDistribution distribution(Long examId, Integer total) {
+        return exams.computeIfAbsent(examId, id -> new ScoreDistribution(total == null ? 0 : total));
+    }
+}
@@ -0,0 +1,116 @@
+package com.oles.oles.service;
+
+/**
+ * Running score statistics for one exam: count, mean and variance (Welford),
+ * min/max and a histogram kept in a Fenwick tree so the rank of any score is
+ * an O(log n) prefix sum. Scores are non-negative integers; the tree grows
+ * when a higher score than it can hold comes in.
+ */
+public class ScoreDistribution {
+
+    public record Snapshot(long count, double mean, double variance, int min, int max, long[] histogram) {}
+
+    private long[] tree; // 1-based Fenwick tree, tree[i] covers scores (i - lowbit(i), i - 1]
+    private long count;
+    private double mean;
+    private double m2;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+
+    public ScoreDistribution(int maxScore) {
+        tree = new long[Math.max(maxScore, 1) + 2];
+    }
+
+    public synchronized void add(int score) {
+        if (score < 0)
+            score = 0;
+        if (score + 1 >= tree.length)
+            grow(score);
+        for (int i = score + 1; i < tree.length; i += i & -i)
+            tree[i]++;
+        count++;
+        double delta = score - mean;
+        mean += delta / count;
+        m2 += delta * (score - mean);
+        min = Math.min(min, score);
+        max = Math.max(max, score);
+    }
+
+    // Undoes add(score) for a score that was counted but never stored
+    public synchronized void remove(int score) {
+        if (score < 0)
+            score = 0;
+        if (score + 1 >= tree.length || countAt(score) == 0)
+            return;
+        for (int i = score + 1; i < tree.length; i += i & -i)
+            tree[i]--;
+        count--;
+        if (count == 0) {
+            mean = 0;
+            m2 = 0;
+            min = Integer.MAX_VALUE;
+            max = Integer.MIN_VALUE;
+            return;
+        }
+        double delta = score - mean;
+        mean -= delta / count;
+        m2 -= delta * (score - mean);
+        while (countAt(min) == 0)
+            min++;
+        while (countAt(max) == 0)
+            max--;
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    // Number of recorded scores strictly below the given score
+    public synchronized long countBelow(int score) {
+        return prefix(Math.min(score, tree.length - 1));
+    }
+
+    /**
+     * Percentile rank in [0, 100]: scores below plus half of the ties, over
+     * the total. Returns 100 for the first score of an exam.
+     */
+    public synchronized double percentileRank(int score) {
+        if (count == 0)
+            return 100.0;
+        long below = prefix(Math.min(Math.max(score, 0), tree.length - 1));
+        long equal = prefix(Math.min(Math.max(score, 0) + 1, tree.length - 1)) - below;
+        return 100.0 * (below + 0.5 * equal) / count;
+    }
+
+    public synchronized Snapshot snapshot() {
+        long[] histogram = new long[count == 0 ? 0 : max + 1];
+        for (int s = 0; s < histogram.length; s++)
+            histogram[s] = prefix(s + 1) - prefix(s);
+        return new Snapshot(count, count == 0 ? 0 : mean, count < 2 ? 0 : m2 / (count - 1),
+                count == 0 ? 0 : min, count == 0 ? 0 : max, histogram);
+    }
+
+    private long countAt(int score) {
+        return prefix(score + 1) - prefix(score);
+    }
+
+    // Sum of counts for scores 0..n-1
+    private long prefix(int n) {
+        long sum = 0;
+        for (int i = n; i > 0; i -= i & -i)
+            sum += tree[i];
+        return sum;
+    }
+
+    private void grow(int score) {
+        int size = tree.length - 1;
+        long[] counts = new long[size];
+        for (int s = 0; s < size; s++)
+            counts[s] = prefix(s + 1) - prefix(s);
+        int newSize = Math.max(score + 1, size * 2);
+        tree = new long[newSize + 1];
+        for (int s = 0; s < counts.length; s++)
+            for (int i = s + 1; counts[s] != 0 && i < tree.length; i += i & -i)
+                tree[i] += counts[s];
+    }
+}
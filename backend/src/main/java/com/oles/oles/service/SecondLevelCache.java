@@ -0,0 +1,76 @@
+package com.oles.oles.service;
+
+import com.oles.oles.model.Exam;
+import com.oles.oles.model.Question;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evicts Hibernate's second-level cache entries for exams and questions. Hibernate keeps
+ * them right for its own writes, but assembly and import change exam_questions over JDBC,
+ * so {@link ExamChanges} evicts explicitly: now, and again after the surrounding
+ * transaction commits so a concurrent read cannot re-cache the old rows.
+ */
+@Service
+public class SecondLevelCache {
+
+    public record RegionStats(String region, long hits, long misses, long puts, long size) {}
+
+    private static final String EXAM_QUESTIONS = Exam.class.getName() + ".questions";
+
+    private final SessionFactory sessions;
+
+    public SecondLevelCache(EntityManagerFactory emf) {
+        this.sessions = emf.unwrap(SessionFactory.class);
+    }
+
+    public void evictExam(Long examId) {
+        run(() -> {
+            sessions.getCache().evictEntityData(Exam.class, examId);
+            sessions.getCache().evictCollectionData(EXAM_QUESTIONS, examId);
+        });
+    }
+
+    public void evictQuestion(Long questionId) {
+        run(() -> sessions.getCache().evictEntityData(Question.class, questionId));
+    }
+
+    // A deleted question drops out of every exam's list, and we do not know which ones held it
+    public void evictQuestionLists() {
+        run(() -> sessions.getCache().evictCollectionData(EXAM_QUESTIONS));
+    }
+
+    public List<RegionStats> stats() {
+        Statistics s = sessions.getStatistics();
+        String[] regions = s.getSecondLevelCacheRegionNames();
+        Arrays.sort(regions);
+        List<RegionStats> out = new ArrayList<>(regions.length);
+        for (String region : regions) {
+            CacheRegionStatistics r = s.getCacheRegionStatistics(region);
+            if (r != null)
+                out.add(new RegionStats(region, r.getHitCount(), r.getMissCount(), r.getPutCount(),
+                        r.getElementCountInMemory()));
+        }
+        return out;
+    }
+
+    private static void run(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+    }
+}
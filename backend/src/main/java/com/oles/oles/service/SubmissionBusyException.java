@@ -0,0 +1,15 @@
+package com.oles.oles.service;
+
+// Thrown when the write-behind queue stays full (or is shutting down); mapped to 503 + Retry-After
+public class SubmissionBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public SubmissionBusyException(long retryAfterSeconds) {
+        super("Submissions are backed up, retry in " + retryAfterSeconds + "s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,116 @@
+package com.oles.oles.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the response to each submission sent with an Idempotency-Key, so a client
+ * retry gets the original answer without touching the database. A retry that arrives
+ * while the first request is still running waits for it. Only successful responses are
+ * kept; a failed submission can be retried for real.
+ */
+@Service
+public class SubmissionDedupe {
+
+    public record Stats(int size, long replays, long firstSeen, long evictions) {}
+
+    private record Key(String username, Long examId, String idempotencyKey) {}
+
+    private record Entry(CompletableFuture<ResponseEntity<?>> response, long createdAt) {}
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMs;
+    private final long waitMs;
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder firstSeen = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SubmissionDedupe(@Value("${oles.submit.dedupe.max-size:100000}") int maxSize,
+            @Value("${oles.submit.dedupe.ttl-minutes:30}") long ttlMinutes,
+            @Value("${oles.submit.dedupe.wait-ms:30000}") long waitMs) {
+        this.maxSize = maxSize;
+        this.ttlMs = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        this.waitMs = waitMs;
+    }
+
+    /** Runs {@code submit} once per (user, exam, key); without a key it just runs it. */
+    public ResponseEntity<?> execute(String username, Long examId, String idempotencyKey,
+            Supplier<ResponseEntity<?>> submit) {
+        if (idempotencyKey == null || idempotencyKey.isBlank())
+            return submit.get();
+        Key key = new Key(username, examId, idempotencyKey);
+        long now = System.currentTimeMillis();
+        Entry mine = new Entry(new CompletableFuture<>(), now);
+        Entry existing = entries.putIfAbsent(key, mine);
+        if (existing != null && existing.response.isDone() && now - existing.createdAt > ttlMs)
+            // Expired: this request starts over
+            existing = entries.replace(key, existing, mine) ? null : entries.putIfAbsent(key, mine);
+        if (existing != null) {
+            replays.increment();
+            return replay(existing);
+        }
+        firstSeen.increment();
+        if (entries.size() > maxSize)
+            evict(now);
+        try {
+            ResponseEntity<?> res = submit.get();
+            if (!res.getStatusCode().is2xxSuccessful())
+                entries.remove(key, mine);
+            mine.response.complete(res);
+            return res;
+        } catch (RuntimeException e) {
+            entries.remove(key, mine);
+            mine.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(entries.size(), replays.sum(), firstSeen.sum(), evictions.sum());
+    }
+
+    private ResponseEntity<?> replay(Entry e) {
+        try {
+            ResponseEntity<?> original = e.response.get(waitMs, TimeUnit.MILLISECONDS);
+            return ResponseEntity.status(original.getStatusCode())
+                    .headers(original.getHeaders())
+                    .header("Idempotent-Replayed", "true")
+                    .body(original.getBody());
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof RuntimeException r ? r : new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Original submission still running", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Drop expired entries first; if that is not enough, shed a tenth of the cache
+    private synchronized void evict(long now) {
+        if (entries.size() <= maxSize)
+            return;
+        entries.values().removeIf(e -> e.response.isDone() && now - e.createdAt > ttlMs);
+        int excess = entries.size() - (maxSize - maxSize / 10);
+        Iterator<Entry> it = entries.values().iterator();
+        while (excess > 0 && it.hasNext()) {
+            if (it.next().response.isDone()) {
+                it.remove();
+                excess--;
+                evictions.increment();
+            }
+        }
+    }
+}
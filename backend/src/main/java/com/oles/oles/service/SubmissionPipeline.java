@@ -0,0 +1,343 @@
+package com.oles.oles.service;
+
+import com.oles.oles.dto.SubmissionReceipt;
+import com.oles.oles.model.Exam;
+import com.oles.oles.model.Result;
+import com.oles.oles.model.User;
+import com.oles.oles.repo.ResultRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * Opt-in write-behind path for graded submissions. Results are queued and a
+ * single writer thread persists them in group commits so that JDBC batching
+ * (see hibernate.jdbc.batch_size) turns many submits into a few inserts.
+ * Candidates get a receipt straight away and can poll it until it is stored.
+ * When the queue stays full for the offer wait, or the writer is shutting
+ * down, the submission is refused with a {@link SubmissionBusyException}
+ * rather than written on the request thread; the autosaved answers are kept
+ * for the retry.
+ */
+@Service
+public class SubmissionPipeline {
+    public static final String PENDING = "PENDING";
+    public static final String PERSISTED = "PERSISTED";
+    public static final String FAILED = "FAILED";
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionPipeline.class);
+
+    private final ResultRepository results;
+    private final AnswerSessionStore sessions;
+    private final ScoreAggregates aggregates;
+    private final ReadRouting routing;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerWaitMs;
+    private final long receiptTtlMs;
+    private final BlockingQueue<Pending> queue;
+    private final Map<String, Receipt> receipts = new ConcurrentHashMap<>();
+    // Highest attempt handed out per (candidate, exam) while results for it are still queued
+    private final Map<AttemptKey, AttemptCounter> attempts = new ConcurrentHashMap<>();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public SubmissionPipeline(ResultRepository results, AnswerSessionStore sessions, ScoreAggregates aggregates,
+            ReadRouting routing, PlatformTransactionManager txManager,
+            @Value("${oles.submit.write-behind.enabled:false}") boolean enabled,
+            @Value("${oles.submit.write-behind.queue-capacity:20000}") int queueCapacity,
+            @Value("${oles.submit.write-behind.batch-size:200}") int batchSize,
+            @Value("${oles.submit.write-behind.flush-interval-ms:100}") long flushIntervalMs,
+            @Value("${oles.submit.write-behind.offer-wait-ms:500}") long offerWaitMs,
+            @Value("${oles.submit.write-behind.receipt-ttl-minutes:30}") long receiptTtlMinutes) {
+        this.results = results;
+        this.sessions = sessions;
+        this.aggregates = aggregates;
+        this.routing = routing;
+        this.tx = new TransactionTemplate(txManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerWaitMs = offerWaitMs;
+        this.receiptTtlMs = TimeUnit.MINUTES.toMillis(receiptTtlMinutes);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled)
+            return;
+        running = true;
+        writer = new Thread(this::drainLoop, "submission-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Stop accepting work and persist everything still queued
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null)
+            return;
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (!queue.isEmpty())
+            log.error("{} submissions were still queued at shutdown", queue.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * The attempt number for a new result. Earlier results for the same
+     * candidate and exam may still be queued, so the database alone would
+     * hand out the same number twice; it is only asked when none are.
+     */
+    public int nextAttempt(User candidate, Exam exam) {
+        AttemptKey key = new AttemptKey(candidate.getId(), exam.getId());
+        int[] next = new int[1];
+        while (next[0] == 0) {
+            AttemptCounter counter = attempts.computeIfAbsent(key, k -> new AttemptCounter());
+            // Outside the map's locks, so a slow query holds up only submits for this key.
+            // Read-write transaction: the lookup goes to the primary, never a lagging replica
+            counter.load(() -> tx.execute(s -> results.findLastAttempt(candidate, exam)));
+            // Numbered under the map's lock so a release cannot drop the counter in between;
+            // if it already did, every result counted there is stored, so load again
+            attempts.computeIfPresent(key, (k, current) -> {
+                if (current == counter)
+                    next[0] = ++counter.last;
+                return current;
+            });
+        }
+        return next[0];
+    }
+
+    /**
+     * Queues the result, waiting up to the offer wait for room. A refused
+     * result gives back its attempt number and its place in the score
+     * distribution, so the retry is counted once.
+     */
+    public SubmissionReceipt submit(Result result) {
+        String id = UUID.randomUUID().toString();
+        Receipt receipt = new Receipt(id, result.getCandidate().getUsername(), result.getExam().getId(),
+                result.getScore(), result.getTotal(), result.getPercentileRank());
+        receipts.put(id, receipt);
+        if (!offer(new Pending(result, receipt))) {
+            receipts.remove(id);
+            aggregates.forget(receipt.examId, receipt.score);
+            released(result);
+            throw new SubmissionBusyException(retryAfterSeconds());
+        }
+        return receipt.view();
+    }
+
+    private boolean offer(Pending p) {
+        if (!running)
+            return false;
+        try {
+            return queue.offer(p, offerWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Time for the writer to work through the queue at its observed rate, spread by up to half again
+    private long retryAfterSeconds() {
+        long rows = rowsWritten.sum();
+        double rowMs = rows == 0 ? 1 : writeNanos.sum() / 1e6 / rows;
+        long base = Math.max(1, (long) Math.ceil(queue.size() * rowMs / 1000));
+        return base + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+
+    public Optional<SubmissionReceipt> find(String receiptId, String username) {
+        Receipt r = receipts.get(receiptId);
+        if (r == null || !r.username.equals(username))
+            return Optional.empty();
+        return Optional.of(r.view());
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        long lastSweep = System.currentTimeMillis();
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    flush(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts us; keep draining until the queue is empty
+                Thread.interrupted();
+            } catch (RuntimeException e) {
+                log.error("Submission writer failed", e);
+                batch.clear();
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastSweep > 60_000) {
+                receipts.values().removeIf(r -> r.doneAt > 0 && now - r.doneAt > receiptTtlMs);
+                lastSweep = now;
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        long start = System.nanoTime();
+        try {
+            tx.executeWithoutResult(s -> {
+                for (Pending p : batch)
+                    em.persist(p.result);
+            });
+            for (Pending p : batch)
+                persisted(p, p.result.getId());
+        } catch (RuntimeException e) {
+            // One bad row must not sink the whole batch
+            log.warn("Batch insert of {} results failed, retrying one by one", batch.size(), e);
+            for (Pending p : batch) {
+                p.result.setId(null);
+                persistOne(p);
+            }
+        }
+        rowsWritten.add(batch.size());
+        writeNanos.add(System.nanoTime() - start);
+    }
+
+    private void persistOne(Pending p) {
+        try {
+            Result saved = results.save(p.result);
+            persisted(p, saved.getId());
+        } catch (DataIntegrityViolationException e) {
+            // Only the same answers already stored under this attempt count as this submission
+            Result r = p.result;
+            Optional<Result> stored = results.findByCandidateAndExamAndAttempt(r.getCandidate(), r.getExam(),
+                    r.getAttempt());
+            if (stored.isPresent() && Arrays.equals(stored.get().getAnswers(), r.getAnswers())) {
+                persisted(p, stored.get().getId());
+            } else {
+                log.error("Could not persist result for {}", p.receipt.username, e);
+                failed(p);
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not persist result for {}", p.receipt.username, e);
+            failed(p);
+        }
+    }
+
+    // The autosaved session was kept until now so a FAILED receipt leaves the answers in place.
+    // The insert ran on the writer thread, so the candidate's reads are pinned to the primary here,
+    // before the receipt tells them the result is there.
+    private void persisted(Pending p, Long resultId) {
+        routing.wrote(p.receipt.username);
+        p.receipt.done(PERSISTED, resultId);
+        sessions.discard(p.receipt.username, p.receipt.examId);
+        released(p.result);
+    }
+
+    // The score was counted when the submission was queued
+    private void failed(Pending p) {
+        p.receipt.done(FAILED, null);
+        aggregates.forget(p.receipt.examId, p.receipt.score);
+        released(p.result);
+    }
+
+    // Once the last queued attempt is settled the database is the source of truth again
+    private void released(Result r) {
+        attempts.computeIfPresent(new AttemptKey(r.getCandidate().getId(), r.getExam().getId()),
+                (k, counter) -> counter.loaded && counter.last == r.getAttempt() ? null : counter);
+    }
+
+    private record AttemptKey(Long candidateId, Long examId) {}
+
+    // The database's last attempt is read once per counter; last only changes under the map's lock
+    private static final class AttemptCounter {
+        private final ReentrantLock loading = new ReentrantLock();
+        private volatile boolean loaded;
+        private int last;
+
+        void load(IntSupplier lastStored) {
+            if (loaded)
+                return;
+            loading.lock();
+            try {
+                if (!loaded) {
+                    last = lastStored.getAsInt();
+                    loaded = true;
+                }
+            } finally {
+                loading.unlock();
+            }
+        }
+    }
+
+    private record Pending(Result result, Receipt receipt) {}
+
+    private static final class Receipt {
+        final String id;
+        final String username;
+        final Long examId;
+        final Integer score;
+        final Integer total;
+        final Double percentileRank;
+        volatile String status = PENDING;
+        volatile Long resultId;
+        volatile long doneAt;
+
+        Receipt(String id, String username, Long examId, Integer score, Integer total, Double percentileRank) {
+            this.id = id;
+            this.username = username;
+            this.examId = examId;
+            this.score = score;
+            this.total = total;
+            this.percentileRank = percentileRank;
+        }
+
+        void done(String status, Long resultId) {
+            this.resultId = resultId;
+            this.status = status;
+            this.doneAt = System.currentTimeMillis();
+        }
+
+        SubmissionReceipt view() {
+            return new SubmissionReceipt(id, status, examId, score, total, percentileRank, resultId);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.oles.oles.service;
+
+import com.oles.oles.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+// Any update (role change included) or delete of a user drops their cached tokens
+@Component
+public class UserChangeListener {
+    private final VerifiedTokenCache tokens;
+
+    public UserChangeListener(VerifiedTokenCache tokens) {
+        this.tokens = tokens;
+    }
+
+    @PostUpdate
+    @PostRemove
+    void userChanged(User user) {
+        tokens.invalidateUser(user.getUsername());
+    }
+}
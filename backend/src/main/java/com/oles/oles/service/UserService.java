@@ -1,32 +1,62 @@
 package com.oles.oles.service;
 
 // import com.oles.oles.model.Role;
+import com.oles.oles.dto.AuthResponse;
 import com.oles.oles.model.User;
 import com.oles.oles.repo.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class UserService {
     private final UserRepository repo;
-    private final PasswordEncoder enc;
+    private final PasswordHashingExecutor hasher;
     private final JwtService jwt;
+    private final MeterRegistry meters;
+    private final ExamPrewarmer prewarmer;
 
-    public UserService(UserRepository r, PasswordEncoder e, JwtService j) {
+    public UserService(UserRepository r, PasswordHashingExecutor h, JwtService j, MeterRegistry m, ExamPrewarmer w) {
         repo = r;
-        enc = e;
+        hasher = h;
         jwt = j;
+        meters = m;
+        prewarmer = w;
     }
 
     public User register(User u) {
-        u.setPassword(enc.encode(u.getPassword()));
+        // The prewarm probe's account is created by the server, never through sign-up
+        if (prewarmer.isReserved(u.getUsername()))
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Username is reserved");
+        u.setPassword(hasher.encode(u.getPassword()));
         return repo.save(u);
     }
 
-    public String login(String username, String rawPwd) {
-        var user = repo.findByUsername(username).orElseThrow();
-        if (!enc.matches(rawPwd, user.getPassword()))
-            throw new RuntimeException("Bad credentials");
-        return jwt.generate(user.getUsername(), user.getRole().name());
+    // One user lookup; BCrypt runs on the bounded hashing pool and the request thread is not held
+    // while it waits. Timed as oles.auth.login by outcome.
+    public CompletableFuture<AuthResponse> login(String username, String rawPwd) {
+        Timer.Sample sample = Timer.start(meters);
+        CompletableFuture<AuthResponse> res;
+        try {
+            var user = repo.findByUsername(username).orElseThrow();
+            res = hasher.matches(rawPwd, user.getPassword()).thenApply(ok -> {
+                if (!ok)
+                    throw new RuntimeException("Bad credentials");
+                String role = user.getRole().name();
+                return new AuthResponse(jwt.generate(user.getUsername(), role), role, user.getUsername());
+            });
+        } catch (RuntimeException e) {
+            res = CompletableFuture.failedFuture(e);
+        }
+        return res.whenComplete((r, e) -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            String outcome = r != null ? "success" : cause instanceof LoginBusyException ? "busy" : "failure";
+            sample.stop(meters.timer("oles.auth.login", "outcome", outcome));
+        });
     }
-}
\ No newline at end of file
+}
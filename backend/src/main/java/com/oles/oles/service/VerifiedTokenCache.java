@@ -0,0 +1,89 @@
+package com.oles.oles.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of bearer tokens that already passed signature verification
+ * and the user lookup. Entries live until the token expires or the TTL runs
+ * out, whichever comes first, and are dropped when the user changes.
+ */
+@Service
+public class VerifiedTokenCache {
+
+    public record Principal(String username, String role) {}
+
+    public record Stats(int size, long hits, long misses, long evictions) {}
+
+    private record Entry(Principal principal, long expiresAt) {}
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMs;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${oles.auth.token-cache.max-size:20000}") int maxSize,
+            @Value("${oles.auth.token-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMs = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    }
+
+    public Principal get(String token) {
+        Entry e = entries.get(token);
+        if (e == null) {
+            misses.increment();
+            return null;
+        }
+        if (e.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(token, e);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return e.principal;
+    }
+
+    public void put(String token, Principal principal, long tokenExpiresAt) {
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(tokenExpiresAt, now + ttlMs);
+        if (expiresAt <= now)
+            return;
+        if (entries.size() >= maxSize)
+            evict(now);
+        entries.put(token, new Entry(principal, expiresAt));
+    }
+
+    public void invalidateUser(String username) {
+        entries.values().removeIf(e -> e.principal.username().equals(username));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(entries.size(), hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    // Drop expired entries first; if that is not enough, shed a tenth of the cache
+    private synchronized void evict(long now) {
+        if (entries.size() < maxSize)
+            return;
+        entries.values().removeIf(e -> e.expiresAt <= now);
+        int excess = entries.size() - (maxSize - maxSize / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+}
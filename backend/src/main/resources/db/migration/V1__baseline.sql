@@ -0,0 +1,54 @@
+-- Schema as Hibernate's ddl-auto=update created it before Flyway took over. Databases created
+-- that way are baselined at this version (spring.flyway.baseline-on-migrate) and start from V2.
+
+create table exam (
+    duration_minutes integer,
+    end_time datetime(6),
+    id bigint not null auto_increment,
+    start_time datetime(6),
+    subject varchar(255),
+    title varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table exam_questions (
+    exam_id bigint not null,
+    questions_id bigint not null
+) engine=InnoDB;
+
+create table questions (
+    correct_index integer,
+    id bigint not null auto_increment,
+    text varchar(1000),
+    choice1 varchar(255),
+    choice2 varchar(255),
+    choice3 varchar(255),
+    choice4 varchar(255),
+    subject varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table results (
+    score integer,
+    total integer,
+    candidate_id bigint not null,
+    exam_id bigint not null,
+    id bigint not null auto_increment,
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null auto_increment,
+    email varchar(255),
+    name varchar(255),
+    password varchar(255),
+    username varchar(255) not null,
+    role enum ('ADMIN','CANDIDATE'),
+    primary key (id)
+) engine=InnoDB;
+
+alter table users add constraint UK_r43af9ap4edm43mmtq01oddj6 unique (username);
+alter table exam_questions add constraint FK69ledxbqkekpv4drd9ducxn1c foreign key (questions_id) references questions (id);
+alter table exam_questions add constraint FK4choqefx183qopsef3ajgg9fm foreign key (exam_id) references exam (id);
+alter table results add constraint FKg7hlibhed8t24qdqh23tsc3lk foreign key (candidate_id) references users (id);
+alter table results add constraint FK7i9o6r8httwxfwr54cxei034t foreign key (exam_id) references exam (id);
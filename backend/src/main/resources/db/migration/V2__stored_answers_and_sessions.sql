@@ -0,0 +1,30 @@
+-- Everything added to the entities since V1: stored answers and submit time on results,
+-- sequence-allocated result ids, autosave snapshots, and the indexes the queries rely on.
+
+alter table results
+    modify id bigint not null,
+    add column answer_layout integer,
+    add column submitted_at datetime(6),
+    add column answers varbinary(4000);
+
+-- Pooled ids (allocation 50, see Result.ID_ALLOCATION) start past every existing result
+create table results_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into results_seq select coalesce(max(id), 0) + 51 from results;
+
+create table exam_sessions (
+    answer_layout integer,
+    exam_id bigint not null,
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    answers varbinary(4000),
+    username varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table exam_sessions add constraint UKgkbsd3iowt0np3ftkhhi4q0bq unique (username, exam_id);
+create index idx_questions_subject on questions (subject, id);
+create index idx_results_exam_id on results (exam_id, id);
+create index idx_results_submitted_at on results (submitted_at);
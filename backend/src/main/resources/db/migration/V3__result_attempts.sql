@@ -0,0 +1,16 @@
+-- Attempt number per (candidate, exam), unique so a duplicate submission cannot create a second row.
+-- Existing results are numbered in the order they were stored.
+
+alter table results add column attempt integer;
+
+update results r
+join (select id, row_number() over (partition by candidate_id, exam_id order by id) as n from results) x
+    on x.id = r.id
+set r.attempt = x.n;
+
+alter table results modify attempt integer not null;
+
+alter table results add constraint uk_results_candidate_exam_attempt unique (candidate_id, exam_id, attempt);
+
+-- A candidate's results in id order: findByCandidate and its keyset pages
+create index idx_results_candidate_id on results (candidate_id, id);
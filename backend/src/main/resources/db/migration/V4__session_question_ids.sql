@@ -0,0 +1,4 @@
+-- The question ids an autosaved answer vector was recorded against, 8 bytes each in key order
+-- (AnswerKey.packedIds). answer_layout is only their hash; rows saved before this have none.
+
+alter table exam_sessions add column question_ids varbinary(32000);
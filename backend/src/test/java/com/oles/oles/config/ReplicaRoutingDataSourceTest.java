@@ -0,0 +1,119 @@
+package com.oles.oles.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.oles.oles.service.ReadRouting;
+
+// Two embedded databases stand in for primary and replica; each knows which one it is
+class ReplicaRoutingDataSourceTest {
+
+	private DataSource primary;
+	private DataSource replica;
+	private ReplicaRoutingDataSource routing;
+	private ReadRouting reads;
+	private JdbcTemplate jdbc;
+	private TransactionTemplate writes;
+	private TransactionTemplate readOnly;
+
+	@BeforeEach
+	void setUp() {
+		primary = database("primary");
+		replica = database("replica");
+		reads = new ReadRouting(55, 5_000);
+		routing = new ReplicaRoutingDataSource(primary,
+				List.of(new ReplicaRoutingDataSource.Replica("replica-1", replica)), reads, "select lag from role", 5);
+		routing.checkReplicas();
+		DataSource ds = new LazyConnectionDataSourceProxy(routing);
+		jdbc = new JdbcTemplate(ds);
+		DataSourceTransactionManager tx = new DataSourceTransactionManager(ds);
+		writes = new TransactionTemplate(tx);
+		readOnly = new TransactionTemplate(tx);
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		new JdbcTemplate(primary).execute("drop all objects");
+		new JdbcTemplate(replica).execute("drop all objects");
+	}
+
+	@Test
+	void readOnlyTransactionsGoToTheReplica() {
+		assertEquals("replica", readOnly.execute(s -> whoAmI()));
+		assertEquals("primary", writes.execute(s -> whoAmI()));
+		assertEquals("primary", whoAmI());
+	}
+
+	@Test
+	void userReadsTheirOwnWritesFromThePrimary() {
+		login("alice");
+		writes.executeWithoutResult(s -> whoAmI());
+		assertEquals("primary", readOnly.execute(s -> whoAmI()));
+		login("bob");
+		assertEquals("replica", readOnly.execute(s -> whoAmI()));
+	}
+
+	@Test
+	void backgroundWritesReportedForAUserPinThatUser() {
+		reads.wrote("alice");
+		login("alice");
+		assertEquals("primary", readOnly.execute(s -> whoAmI()));
+		// Long enough for a replica at max lag to go unnoticed until the next check
+		assertEquals(10_000, new ReadRouting(5, 5_000).windowMs());
+	}
+
+	@Test
+	void sharedChangesPinEveryoneToThePrimary() {
+		reads.sharedDataChanged();
+		assertEquals("primary", readOnly.execute(s -> whoAmI()));
+	}
+
+	@Test
+	void laggingReplicaLeavesRotationUntilItCatchesUp() {
+		new JdbcTemplate(replica).update("update role set lag = 30");
+		routing.checkReplicas();
+		assertFalse(routing.replicas().get(0).healthy());
+		assertEquals("primary", readOnly.execute(s -> whoAmI()));
+
+		new JdbcTemplate(replica).update("update role set lag = 1");
+		routing.checkReplicas();
+		assertTrue(routing.replicas().get(0).healthy());
+		assertEquals("replica", readOnly.execute(s -> whoAmI()));
+	}
+
+	private String whoAmI() {
+		return jdbc.queryForObject("select name from role", String.class);
+	}
+
+	private static void login(String username) {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList("ROLE_CANDIDATE")));
+	}
+
+	private static DataSource database(String name) {
+		DataSource ds = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate t = new JdbcTemplate(ds);
+		t.execute("create table role (name varchar(20), lag int)");
+		t.update("insert into role values (?, 0)", name);
+		return ds;
+	}
+}
@@ -0,0 +1,57 @@
+package com.oles.oles.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RequestMetricsFilterTest {
+
+	private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+	private final SqlStatementInspector inspector = new SqlStatementInspector(0);
+	private final RequestMetricsFilter filter = new RequestMetricsFilter(inspector, meters);
+
+	private DistributionSummary recorded() {
+		return meters.find("oles.http.sql.statements").summary();
+	}
+
+	@Test
+	void countsAnAsyncRequestOnceWithItsWorkerTask() throws Exception {
+		MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/admin/results/export");
+		req.setAsyncSupported(true);
+		MockHttpServletResponse res = new MockHttpServletResponse();
+		Runnable[] handedOff = new Runnable[1];
+		filter.doFilter(req, res, (rq, rs) -> {
+			inspector.inspect("select 1");
+			req.startAsync();
+			handedOff[0] = inspector.propagate(() -> inspector.inspect("select 2"));
+		});
+		// Still running: nothing recorded yet
+		assertNull(recorded());
+		CompletableFuture.runAsync(handedOff[0]).get();
+		// Other threads' statements belong to nobody
+		CompletableFuture.runAsync(() -> inspector.inspect("select 3")).get();
+
+		req.setAsyncStarted(false);
+		req.setDispatcherType(DispatcherType.ASYNC);
+		filter.doFilter(req, res, (rq, rs) -> inspector.inspect("select 4"));
+		assertNull(recorded());
+		req.getAsyncContext().complete();
+		assertEquals(1, recorded().count());
+		assertEquals(3, recorded().totalAmount());
+	}
+
+	@Test
+	void statementsOutsideARequestAreNotCounted() throws Exception {
+		inspector.inspect("select 1");
+		MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/candidate/exams");
+		filter.doFilter(req, new MockHttpServletResponse(), (rq, rs) -> inspector.inspect("select 2"));
+		assertEquals(1, recorded().totalAmount());
+	}
+}
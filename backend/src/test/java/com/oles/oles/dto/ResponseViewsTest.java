@@ -0,0 +1,82 @@
+package com.oles.oles.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.oles.oles.model.Exam;
+import com.oles.oles.model.Question;
+import com.oles.oles.model.Result;
+import com.oles.oles.model.Role;
+import com.oles.oles.model.User;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class ResponseViewsTest {
+
+	private final ObjectMapper mapper = JsonMapper.builder()
+			.findAndAddModules()
+			.addModule(new BlackbirdModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.build();
+
+	private static Exam exam() {
+		LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+		Exam e = new Exam("Algebra", "Maths", 60, start, start.plusHours(1));
+		e.setId(7L);
+		Question q = new Question("Maths", "1 + 1?", "1", "2", "3", "4", 2);
+		q.setId(3L);
+		e.getQuestions().add(q);
+		return e;
+	}
+
+	private static User user() {
+		User u = new User("alice", "$2a$10$hash", "Alice", "alice@example.com", Role.CANDIDATE);
+		u.setId(5L);
+		return u;
+	}
+
+	@Test
+	void resultViewCarriesNoAnswersOrPassword() throws Exception {
+		Result r = new Result(user(), exam(), 1, 1);
+		r.setId(11L);
+		r.setAttempt(2);
+		r.setAnswers(new byte[] { 2 });
+		r.setPercentileRank(50.0);
+		String json = mapper.writeValueAsString(ResultView.of(r));
+		assertFalse(json.contains("password"));
+		assertFalse(json.contains("hash"));
+		assertFalse(json.contains("correctIndex"));
+		assertFalse(json.contains("questions"));
+		assertFalse(json.contains("answers"));
+
+		JsonNode node = mapper.readTree(json);
+		assertEquals(11, node.path("id").asLong());
+		assertEquals("alice", node.path("candidate").path("username").asText());
+		assertEquals("Algebra", node.path("exam").path("title").asText());
+		assertEquals("Maths", node.path("exam").path("subject").asText());
+		assertEquals(2, node.path("attempt").asInt());
+		assertEquals(50.0, node.path("percentileRank").asDouble());
+		assertEquals("2026-01-01T09:00:00", node.path("exam").path("startTime").asText());
+	}
+
+	@Test
+	void userViewHasNoPassword() throws Exception {
+		JsonNode node = mapper.readTree(mapper.writeValueAsString(UserView.of(user())));
+		assertFalse(node.has("password"));
+		assertEquals("CANDIDATE", node.path("role").asText());
+	}
+
+	@Test
+	void adminExamViewKeepsQuestionsAndAnswers() throws Exception {
+		JsonNode node = mapper.readTree(mapper.writeValueAsString(ExamView.of(exam())));
+		assertEquals(1, node.path("questions").size());
+		assertEquals(2, node.path("questions").get(0).path("correctIndex").asInt());
+		assertTrue(node.path("questions").get(0).has("choice4"));
+	}
+}
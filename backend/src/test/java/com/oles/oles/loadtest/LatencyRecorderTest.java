@@ -0,0 +1,39 @@
+package com.oles.oles.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyRecorderTest {
+
+	@Test
+	void nearestRankPercentiles() {
+		long[] sorted = new long[100];
+		for (int i = 0; i < 100; i++)
+			sorted[i] = i + 1;
+		assertEquals(50, LatencyRecorder.percentile(sorted, 50));
+		assertEquals(95, LatencyRecorder.percentile(sorted, 95));
+		assertEquals(99, LatencyRecorder.percentile(sorted, 99));
+		assertEquals(7, LatencyRecorder.percentile(new long[] { 7 }, 99));
+		assertEquals(0, LatencyRecorder.percentile(new long[0], 50));
+	}
+
+	@Test
+	void reportsPerEndpointErrorsAndThroughput() {
+		LatencyRecorder r = new LatencyRecorder("login", "submit");
+		for (int i = 1; i <= 10; i++)
+			r.record("submit", i * 1_000_000L, i == 10 ? "503" : null);
+		var reports = r.report(2.0);
+		assertEquals("login", reports.get(0).endpoint());
+		assertEquals(0, reports.get(0).requests());
+		var submit = reports.get(1);
+		assertEquals(10, submit.requests());
+		assertEquals(0.1, submit.errorRate(), 1e-9);
+		assertEquals(5.0, submit.throughputPerSecond(), 1e-9);
+		assertEquals(5.0, submit.p50Ms(), 1e-9);
+		assertEquals(10.0, submit.maxMs(), 1e-9);
+		assertEquals(Map.of("503", 1L), submit.errorsByStatus());
+	}
+}
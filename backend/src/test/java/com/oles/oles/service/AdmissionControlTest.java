@@ -0,0 +1,127 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class AdmissionControlTest {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	private static AdmissionControl control(int burst, double perSecond, int concurrency, int queueCapacity) {
+		return new AdmissionControl(true, burst, perSecond, 1000, concurrency, queueCapacity, 50, 200, false);
+	}
+
+	@Test
+	void allowsABurstThenRefillsAtTheConfiguredRate() {
+		AdmissionControl a = control(3, 2, 1, 0);
+		for (int i = 0; i < 3; i++)
+			a.checkRate("alice", 0);
+		AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class, () -> a.checkRate("alice", 0));
+		assertEquals(AdmissionControl.RATE, e.getReason());
+		assertEquals(1, e.getRetryAfterSeconds());
+		// Half a second refills one token at 2/s
+		assertDoesNotThrow(() -> a.checkRate("alice", SECOND / 2));
+		assertThrows(AdmissionRejectedException.class, () -> a.checkRate("alice", SECOND / 2));
+		assertDoesNotThrow(() -> a.checkRate("bob", 0));
+		assertEquals(2, a.stats().rateLimited());
+	}
+
+	@Test
+	void retryAfterCoversTheTimeToTheNextToken() {
+		AdmissionControl a = control(1, 0.1, 1, 0);
+		a.checkRate("alice", 0);
+		AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class, () -> a.checkRate("alice", 0));
+		assertEquals(10, e.getRetryAfterSeconds());
+	}
+
+	@Test
+	void rejectsSubmitsBeyondConcurrencyAndQueue() {
+		AdmissionControl a = control(100, 100, 1, 0);
+		AdmissionControl.Ticket first = a.admitSubmit("alice", 1L);
+		AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class, () -> a.admitSubmit("bob", 1L));
+		assertEquals(AdmissionControl.QUEUE, e.getReason());
+		assertTrue(e.getRetryAfterSeconds() >= 1);
+		assertEquals(1, a.stats().submitsInFlight());
+		first.close();
+		first.close();
+		assertEquals(0, a.stats().submitsInFlight());
+		a.admitSubmit("bob", 1L).close();
+	}
+
+	@Test
+	void retryKeepsTheArrivalTimeOfTheRejectedAttempt() throws Exception {
+		AdmissionControl a = control(100, 100, 1, 0);
+		AdmissionControl.Ticket busy = a.admitSubmit("alice", 1L);
+		LocalDateTime before = LocalDateTime.now();
+		assertThrows(AdmissionRejectedException.class, () -> a.admitSubmit("bob", 1L));
+		Thread.sleep(20);
+		busy.close();
+		try (AdmissionControl.Ticket retry = a.admitSubmit("bob", 1L)) {
+			assertTrue(!retry.receivedAt().isBefore(before));
+			assertTrue(retry.receivedAt().isBefore(LocalDateTime.now().minusNanos(10_000_000)));
+		}
+		assertEquals(1, a.stats().carriedOver());
+		// Only the first retry carries the old time over
+		try (AdmissionControl.Ticket again = a.admitSubmit("bob", 1L)) {
+			assertTrue(again.receivedAt().isAfter(before.plusNanos(10_000_000)));
+		}
+	}
+
+	@Test
+	void rateLimitedSubmitAlsoKeepsItsArrivalTime() {
+		AdmissionControl a = control(1, 0.001, 4, 0);
+		a.checkRate("alice");
+		LocalDateTime before = LocalDateTime.now();
+		assertThrows(AdmissionRejectedException.class, () -> a.admitSubmit("alice", 1L));
+		// The bucket is still empty, but the retry it was told to make gets in
+		try (AdmissionControl.Ticket retry = a.admitSubmit("alice", 1L)) {
+			assertTrue(!retry.receivedAt().isBefore(before));
+		}
+		assertEquals(1, a.stats().carriedOver());
+	}
+
+	@Test
+	void rejectionOlderThanTheCarryOverWindowIsNotLentToALaterSubmit() {
+		AdmissionControl a = control(100, 100, 1, 0);
+		LocalDateTime t0 = LocalDateTime.of(2026, 1, 1, 9, 0);
+		AdmissionControl.Ticket busy = a.admitSubmit("alice", 1L, t0);
+		assertThrows(AdmissionRejectedException.class, () -> a.admitSubmit("bob", 1L, t0));
+		busy.close();
+		LocalDateTime later = t0.plusMinutes(AdmissionControl.CARRY_OVER_MINUTES + 1);
+		try (AdmissionControl.Ticket retake = a.admitSubmit("bob", 1L, later)) {
+			assertEquals(later, retake.receivedAt());
+		}
+		assertEquals(0, a.stats().carriedOver());
+	}
+
+	@Test
+	void queuedSubmitWaitsForASlot() throws Exception {
+		AdmissionControl a = new AdmissionControl(true, 100, 100, 1000, 1, 1, 5000, 200, false);
+		AdmissionControl.Ticket busy = a.admitSubmit("alice", 1L);
+		Thread waiter = new Thread(() -> a.admitSubmit("bob", 1L).close());
+		waiter.start();
+		while (a.stats().submitsQueued() == 0)
+			Thread.sleep(1);
+		assertThrows(AdmissionRejectedException.class, () -> a.admitSubmit("carol", 1L));
+		busy.close();
+		waiter.join(5000);
+		assertEquals(0, a.stats().submitsQueued());
+		assertEquals(0, a.stats().submitsInFlight());
+	}
+
+	@Test
+	void queueLeavesHalfTheRequestThreadsFree() {
+		assertEquals(64, AdmissionControl.capQueue(64, 16, 200));
+		assertEquals(84, AdmissionControl.capQueue(2000, 16, 200));
+		assertEquals(0, AdmissionControl.capQueue(10, 16, 20));
+		assertEquals(84, new AdmissionControl(true, 1, 1, 1, 16, 2000, 1, 200, false).stats().queueCapacity());
+		// The virtual profile on a JVM without virtual threads still runs on Tomcat's platform threads
+		int virtual = Runtime.version().feature() >= 21 ? 2000 : 84;
+		assertEquals(virtual, new AdmissionControl(true, 1, 1, 1, 16, 2000, 1, 200, true).stats().queueCapacity());
+	}
+}
@@ -0,0 +1,45 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.oles.oles.repo.ExamRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AnswerKeyCacheTest {
+
+	private final ExamRepository exams = mock(ExamRepository.class);
+	private final AnswerKeyCache cache = new AnswerKeyCache(exams);
+
+	private static ExamRepository.AnswerKeyRow row(long questionId, int correct) {
+		ExamRepository.AnswerKeyRow r = mock(ExamRepository.AnswerKeyRow.class);
+		when(r.getQuestionId()).thenReturn(questionId);
+		when(r.getCorrectIndex()).thenReturn(correct);
+		return r;
+	}
+
+	@Test
+	void unknownOrEmptyExamIsNotCached() {
+		when(exams.findAnswerKeyRows(404L)).thenReturn(List.of());
+		assertEquals(0, cache.get(404L).total());
+		assertEquals(0, cache.get(404L).total());
+		verify(exams, times(2)).findAnswerKeyRows(404L);
+	}
+
+	@Test
+	void compiledKeyIsCachedUntilInvalidated() {
+		List<ExamRepository.AnswerKeyRow> rows = List.of(row(3, 2), row(7, 1));
+		when(exams.findAnswerKeyRows(9L)).thenReturn(rows);
+		AnswerKey key = cache.get(9L);
+		assertSame(key, cache.get(9L));
+		verify(exams, times(1)).findAnswerKeyRows(9L);
+		cache.invalidate(9L);
+		assertEquals(2, cache.get(9L).total());
+		verify(exams, times(2)).findAnswerKeyRows(9L);
+	}
+}
@@ -0,0 +1,60 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class AnswerKeyTest {
+
+	private final AnswerKey key = new AnswerKey(new long[] { 3, 7, 200 }, new byte[] { 2, 1, 4 });
+
+	@Test
+	void scoresOnlyCorrectAnswersForQuestionsInTheExam() {
+		Map<Long, Integer> answers = new HashMap<>();
+		answers.put(3L, 2);
+		answers.put(7L, 3);
+		answers.put(200L, 4);
+		answers.put(999L, 1);
+		assertEquals(2, key.score(answers));
+		assertEquals(3, key.total());
+	}
+
+	@Test
+	void ignoresNullAndMissingAnswers() {
+		Map<Long, Integer> answers = new HashMap<>();
+		answers.put(3L, null);
+		answers.put(null, 1);
+		assertEquals(0, key.score(answers));
+		assertEquals(0, key.score(null));
+	}
+
+	@Test
+	void encodesAnswersInKeyOrder() {
+		Map<Long, Integer> answers = new HashMap<>();
+		answers.put(200L, 4);
+		answers.put(3L, 1);
+		answers.put(999L, 2);
+		answers.put(7L, 9000);
+		byte[] vector = key.encode(answers);
+		assertArrayEquals(new byte[] { 1, 0, 4 }, vector);
+		assertEquals(1, key.scoreVector(vector));
+	}
+
+	@Test
+	void layoutsAreComparedByQuestionIdsNotByHash() {
+		// Same Arrays.hashCode, different questions
+		AnswerKey a = new AnswerKey(new long[] { 1, 93 }, new byte[] { 1, 1 });
+		AnswerKey b = new AnswerKey(new long[] { 2, 62 }, new byte[] { 1, 1 });
+		assertEquals(a.layout(), b.layout());
+		assertFalse(a.sameLayout(b));
+		assertFalse(a.matches(b.packedIds()));
+		assertTrue(a.sameLayout(new AnswerKey(new long[] { 1, 93 }, new byte[] { 2, 3 })));
+		assertTrue(a.matches(a.packedIds()));
+		assertFalse(a.matches(null));
+	}
+}
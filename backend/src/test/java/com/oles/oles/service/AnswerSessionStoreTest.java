@@ -0,0 +1,107 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.oles.oles.model.ExamSessionSnapshot;
+import com.oles.oles.repo.ExamSessionSnapshotRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+class AnswerSessionStoreTest {
+
+	private static final String DELETE = "delete from exam_sessions where id = ?";
+	private static final String SAVED = "select username, exam_id from exam_sessions";
+
+	private final AnswerKey key = new AnswerKey(new long[] { 3, 7 }, new byte[] { 2, 1 });
+	private final AnswerKeyCache keys = mock(AnswerKeyCache.class);
+	private final ExamSessionSnapshotRepository snapshots = mock(ExamSessionSnapshotRepository.class);
+	private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+	private final ReadRouting routing = mock(ReadRouting.class);
+	private final AnswerSessionStore store = new AnswerSessionStore(keys, snapshots, jdbc, routing, 360);
+
+	AnswerSessionStoreTest() {
+		when(keys.get(9L)).thenReturn(key);
+		ExamSessionSnapshot snap = new ExamSessionSnapshot("alice", 9L, new byte[] { 2, 4 }, key.layout(),
+				key.packedIds());
+		snap.setId(42L);
+		when(snapshots.findByUsernameAndExamId("alice", 9L)).thenReturn(Optional.of(snap));
+		when(jdbc.query(eq(SAVED), any(RowMapper.class)))
+				.thenReturn(List.of(new AnswerSessionStore.SessionKey("alice", 9L)));
+		store.load();
+	}
+
+	@Test
+	void readingAnswersForGradingKeepsTheSnapshot() {
+		assertArrayEquals(new byte[] { 2, 4 }, store.answers("alice", 9L, key));
+		store.flush();
+		verify(jdbc, never()).batchUpdate(eq(DELETE), anyList());
+		// A submit that failed to store can be retried with the same answers
+		assertArrayEquals(new byte[] { 2, 4 }, store.answers("alice", 9L, key));
+	}
+
+	@Test
+	void discardDeletesTheSnapshotOnTheNextFlush() {
+		store.answers("alice", 9L, key);
+		store.discard("alice", 9L);
+		store.flush();
+		verify(jdbc).batchUpdate(eq(DELETE), argThat((List<Object[]> rows) -> rows.size() == 1
+				&& rows.get(0)[0].equals(42L)));
+		// Written without a request user: reads stay on the primary until replicas have the delete
+		verify(routing).wrote("alice");
+	}
+
+	@Test
+	void submitWithoutAnAutosaveRunsNoQuery() {
+		// bob never autosaved, so nothing of his was loaded at startup
+		assertArrayEquals(new byte[] { 0, 0 }, store.answers("bob", 9L, key));
+		store.discard("bob", 9L);
+		store.flush();
+		verifyNoInteractions(snapshots);
+		// The startup load is the only statement
+		verify(jdbc).query(eq(SAVED), any(RowMapper.class));
+		verifyNoMoreInteractions(jdbc);
+	}
+
+	@Test
+	void sessionSavedByAFlushIsLookedUpAfterEviction() {
+		// Evicts every session that is clean at the end of a flush
+		AnswerSessionStore evicting = new AnswerSessionStore(keys, snapshots, jdbc, routing, -1);
+		ExamSessionSnapshot saved = new ExamSessionSnapshot("bob", 9L, new byte[] { 1, 0 }, key.layout(),
+				key.packedIds());
+		saved.setId(43L);
+		when(snapshots.save(any())).thenReturn(saved);
+		when(snapshots.findByUsernameAndExamId("bob", 9L)).thenReturn(Optional.of(saved));
+		evicting.save("bob", 9L, Map.of(3L, 1));
+		evicting.flush();
+		assertEquals(0, evicting.activeSessions());
+		assertArrayEquals(new byte[] { 1, 0 }, evicting.answers("bob", 9L, key));
+		verify(snapshots).findByUsernameAndExamId("bob", 9L);
+	}
+
+	@Test
+	void snapshotOfOtherQuestionsWithTheSameLayoutHashIsNotResumed() {
+		// Arrays.hashCode gives {2, 38} and {3, 7} the same layout
+		AnswerKey other = new AnswerKey(new long[] { 2, 38 }, new byte[] { 1, 1 });
+		ExamSessionSnapshot stale = new ExamSessionSnapshot("alice", 9L, new byte[] { 2, 4 }, other.layout(),
+				other.packedIds());
+		stale.setId(42L);
+		when(snapshots.findByUsernameAndExamId("alice", 9L)).thenReturn(Optional.of(stale));
+		assertEquals(key.layout(), other.layout());
+		assertArrayEquals(new byte[] { 0, 0 }, store.answers("alice", 9L, key));
+	}
+}
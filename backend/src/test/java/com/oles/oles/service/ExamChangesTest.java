@@ -0,0 +1,46 @@
+package com.oles.oles.service;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ExamChangesTest {
+
+	private final AnswerKeyCache answerKeys = mock(AnswerKeyCache.class);
+	private final ExamCatalog catalog = mock(ExamCatalog.class);
+	private final ExamPaperCache papers = mock(ExamPaperCache.class);
+	private final ExamChanges changes = new ExamChanges(answerKeys, catalog, papers, mock(SecondLevelCache.class),
+			mock(ReadRouting.class), mock(QuestionSearchIndex.class));
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+			TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	@Test
+	void invalidatesStraightAwayOutsideATransaction() {
+		changes.examChanged(9L);
+		verify(answerKeys).invalidate(9L);
+		verify(papers).invalidate(9L);
+		verify(catalog).changed();
+	}
+
+	@Test
+	void waitsForTheCommitInsideATransaction() {
+		TransactionSynchronizationManager.initSynchronization();
+		changes.examChanged(9L);
+		verifyNoInteractions(answerKeys, papers, catalog);
+
+		for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations())
+			s.afterCommit();
+		verify(answerKeys).invalidate(9L);
+		verify(papers).invalidate(9L);
+		verify(catalog).changed();
+	}
+}
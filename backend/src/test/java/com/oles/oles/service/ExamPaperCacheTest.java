@@ -0,0 +1,23 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ExamPaperCacheTest {
+
+	@Test
+	void gzipNeedsAPositiveQuality() {
+		assertTrue(ExamPaperCache.acceptsGzip("gzip, deflate, br"));
+		assertTrue(ExamPaperCache.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+		assertTrue(ExamPaperCache.acceptsGzip("*"));
+		assertFalse(ExamPaperCache.acceptsGzip(null));
+		assertFalse(ExamPaperCache.acceptsGzip("identity"));
+		assertFalse(ExamPaperCache.acceptsGzip("gzip;q=0"));
+		assertFalse(ExamPaperCache.acceptsGzip("gzip; q=0.000, *"));
+		assertFalse(ExamPaperCache.acceptsGzip("*;q=0"));
+		// Named codings are not wildcards
+		assertFalse(ExamPaperCache.acceptsGzip("x-gzipish"));
+	}
+}
@@ -0,0 +1,42 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class ExamPrewarmerTest {
+
+	private final ExamPrewarmer prewarmer = new ExamPrewarmer(null, null, null, null, null, null, null, 10, 1,
+			"oles-prewarm");
+
+	@AfterEach
+	void clear() {
+		SecurityContextHolder.clearContext();
+		prewarmer.shutdown();
+	}
+
+	@Test
+	void probeIsNeverTakenFromClientHeaders() {
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("oles-prewarm",
+				null, AuthorityUtils.createAuthorityList("ROLE_CANDIDATE")));
+		MockHttpServletRequest req = new MockHttpServletRequest();
+		req.addHeader("X-User", "oles-prewarm");
+		assertFalse(prewarmer.isProbe(req));
+		req.addHeader("X-Prewarm-Probe", "guess");
+		assertFalse(prewarmer.isProbe(req));
+	}
+
+	@Test
+	void probeNameCannotBeRegistered() {
+		assertTrue(prewarmer.isReserved("oles-prewarm"));
+		assertTrue(prewarmer.isReserved(" OLES-Prewarm "));
+		assertFalse(prewarmer.isReserved("alice"));
+		assertFalse(prewarmer.isReserved(null));
+	}
+}
@@ -0,0 +1,80 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.oles.oles.dto.CandidatePaper;
+import com.oles.oles.dto.CandidateQuestion;
+import com.oles.oles.model.Exam;
+import com.oles.oles.model.Question;
+import com.oles.oles.repo.ExamRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class PaperShuffleTest {
+
+	private final ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
+	private final PaperShuffle shuffle = new PaperShuffle(true, "test");
+
+	@Test
+	void mapsChoicesBackToTheOriginalNumbering() {
+		Map<Long, Integer> original = Map.of(1L, 1, 2L, 2, 3L, 3, 4L, 4);
+		Map<Long, Integer> shown = shuffle.toDisplayed("alice", 9L, original);
+		assertEquals(original, shuffle.toOriginal("alice", 9L, shown));
+	}
+
+	@Test
+	void paperPiecesMatchJacksonAndReorderCleanly() throws Exception {
+		Exam exam = new Exam("Maths", "Mathematics", 30, LocalDateTime.of(2024, 1, 1, 9, 0), null);
+		exam.setId(9L);
+		for (long id = 1; id <= 6; id++) {
+			Question q = new Question("Mathematics", "Q\"" + id, "a" + id, "b" + id, "c" + id, "d" + id, 1);
+			q.setId(id);
+			exam.getQuestions().add(q);
+		}
+		ExamRepository repo = mock(ExamRepository.class);
+		when(repo.findWithQuestionsById(9L)).thenReturn(Optional.of(exam));
+		ExamPaperCache.RenderedPaper paper = new ExamPaperCache(repo, mapper).get(9L);
+
+		CandidatePaper expected = new CandidatePaper(9L, "Maths", "Mathematics", 30, exam.getStartTime(), null,
+				exam.getQuestions().stream().map(CandidateQuestion::of).toList());
+		assertArrayEquals(mapper.writeValueAsBytes(expected), paper.plain());
+
+		JsonNode shuffled = mapper.readTree(paper.assemble(shuffle.ordering("alice", 9L)));
+		Set<Long> ids = new HashSet<>();
+		List<Long> order = new ArrayList<>();
+		for (JsonNode q : shuffled.get("questions")) {
+			long id = q.get("id").asLong();
+			ids.add(id);
+			order.add(id);
+			Set<String> choices = new HashSet<>();
+			for (int c = 1; c <= 4; c++)
+				choices.add(q.get("choice" + c).asText());
+			assertEquals(Set.of("a" + id, "b" + id, "c" + id, "d" + id), choices);
+		}
+		assertEquals(Set.of(1L, 2L, 3L, 4L, 5L, 6L), ids);
+		assertNotEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), order);
+	}
+
+	@Test
+	void refusesToShuffleWithoutARealSecret() {
+		assertThrows(IllegalStateException.class, () -> new PaperShuffle(true, ""));
+		assertThrows(IllegalStateException.class, () -> new PaperShuffle(true, null));
+		assertThrows(IllegalStateException.class, () -> new PaperShuffle(true, PaperShuffle.PLACEHOLDER_SECRET));
+		// Nothing is derived from it while shuffling is off
+		new PaperShuffle(false, "");
+	}
+}
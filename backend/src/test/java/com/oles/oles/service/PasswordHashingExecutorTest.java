@@ -0,0 +1,84 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class PasswordHashingExecutorTest {
+
+	// Blocks every hash until released and counts how many actually ran
+	private static class GatedEncoder implements PasswordEncoder {
+		final CountDownLatch gate = new CountDownLatch(1);
+		final AtomicInteger hashed = new AtomicInteger();
+
+		@Override
+		public String encode(CharSequence raw) {
+			return "{x}" + raw;
+		}
+
+		@Override
+		public boolean matches(CharSequence raw, String encoded) {
+			try {
+				gate.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			hashed.incrementAndGet();
+			return encoded.equals("{x}" + raw);
+		}
+	}
+
+	@Test
+	void matchesCompletesWithoutBlockingTheCaller() throws Exception {
+		GatedEncoder encoder = new GatedEncoder();
+		PasswordHashingExecutor hasher = new PasswordHashingExecutor(encoder, 1, 4, 5_000);
+		CompletableFuture<Boolean> ok = hasher.matches("pw", "{x}pw");
+		assertTrue(!ok.isDone());
+		encoder.gate.countDown();
+		assertTrue(ok.get(5, TimeUnit.SECONDS));
+		hasher.shutdown();
+	}
+
+	@Test
+	void fullQueueIsBusyAtOnce() {
+		GatedEncoder encoder = new GatedEncoder();
+		PasswordHashingExecutor hasher = new PasswordHashingExecutor(encoder, 1, 1, 5_000);
+		hasher.matches("a", "{x}a");
+		hasher.matches("b", "{x}b");
+		CompletableFuture<Boolean> third = hasher.matches("c", "{x}c");
+		ExecutionException e = assertThrows(ExecutionException.class, () -> third.get(0, TimeUnit.SECONDS));
+		assertInstanceOf(LoginBusyException.class, e.getCause());
+		encoder.gate.countDown();
+		hasher.shutdown();
+	}
+
+	@Test
+	void hashQueuedPastTheTimeoutIsSkipped() throws Exception {
+		GatedEncoder encoder = new GatedEncoder();
+		PasswordHashingExecutor hasher = new PasswordHashingExecutor(encoder, 1, 4, 100);
+		CompletableFuture<Boolean> running = hasher.matches("a", "{x}a");
+		CompletableFuture<Boolean> queued = hasher.matches("b", "{x}b");
+		ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(LoginBusyException.class, e.getCause());
+
+		encoder.gate.countDown();
+		assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+		long until = System.currentTimeMillis() + 5_000;
+		while (hasher.stats().rejected() == 0 && System.currentTimeMillis() < until)
+			Thread.sleep(10);
+		// The first hash ran for a caller who had already been answered; the queued one never did
+		assertEquals(1, hasher.stats().rejected());
+		assertEquals(1, encoder.hashed.get());
+		assertEquals(1, hasher.stats().completed());
+		hasher.shutdown();
+	}
+}
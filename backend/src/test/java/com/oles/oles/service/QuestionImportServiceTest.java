@@ -0,0 +1,85 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oles.oles.dto.ImportReport;
+import com.oles.oles.repo.ExamRepository;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+class QuestionImportServiceTest {
+
+	@Test
+	void parsesQuotedCsvFields() throws IOException {
+		BufferedReader r = new BufferedReader(new StringReader(
+				"Math,\"What is 2, plus \"\"2\"\"?\",3,4,5,6,2\n\"multi\nline\",b\n"));
+		assertEquals(List.of("Math", "What is 2, plus \"2\"?", "3", "4", "5", "6", "2"),
+				QuestionImportService.nextRecord(r));
+		assertEquals(List.of("multi\nline", "b"), QuestionImportService.nextRecord(r));
+		assertNull(QuestionImportService.nextRecord(r));
+	}
+
+	@Test
+	void validatesRows() {
+		assertNull(QuestionImportService.validate(new String[] { "Math", "Q", "a", "b", "c", "d", "4" }));
+		assertEquals("Missing choice3",
+				QuestionImportService.validate(new String[] { "Math", "Q", "a", "b", " ", "d", "1" }));
+		assertEquals("correctIndex must be between 1 and 4",
+				QuestionImportService.validate(new String[] { "Math", "Q", "a", "b", "c", "d", "5" }));
+		assertEquals("correctIndex is not a number",
+				QuestionImportService.validate(new String[] { "Math", "Q", "a", "b", "c", "d", "x" }));
+	}
+
+	@Test
+	void jsonValuesThatAreNotObjectsFailTheirRowAndTheRestIsRead() throws IOException {
+		QuestionImportService importer = new QuestionImportService(mock(JdbcTemplate.class),
+				mock(PlatformTransactionManager.class), new ObjectMapper(), mock(ExamRepository.class),
+				mock(ExamChanges.class));
+		String json = "[{\"subject\":\"Math\"}, 42, [1, [2, {\"a\": 3}]], null, {\"text\":\"Q\"}]";
+		ImportReport report = importer.importQuestions(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+				QuestionImportService.Format.JSON, null, 10);
+		assertEquals(0, report.imported());
+		assertEquals(5, report.failed());
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L), report.errors().stream().map(ImportReport.RowError::row).toList());
+		assertEquals("Expected a question object, found a number", report.errors().get(1).message());
+		assertEquals("Expected a question object, found an array", report.errors().get(2).message());
+		assertEquals("Missing subject", report.errors().get(4).message());
+	}
+
+	@Test
+	void unknownExamIsNotFound() {
+		ExamRepository exams = mock(ExamRepository.class);
+		when(exams.existsById(99L)).thenReturn(false);
+		QuestionImportService importer = new QuestionImportService(mock(JdbcTemplate.class),
+				mock(PlatformTransactionManager.class), new ObjectMapper(), exams, mock(ExamChanges.class));
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> importer.importQuestions(
+				new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)), QuestionImportService.Format.JSON,
+				99L, 10));
+		assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+	}
+
+	@Test
+	void jsonThatIsNotAnArrayIsABadRequest() {
+		QuestionImportService importer = new QuestionImportService(mock(JdbcTemplate.class),
+				mock(PlatformTransactionManager.class), new ObjectMapper(), mock(ExamRepository.class),
+				mock(ExamChanges.class));
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> importer.importQuestions(
+				new ByteArrayInputStream("{\"subject\":\"Math\"}".getBytes(StandardCharsets.UTF_8)),
+				QuestionImportService.Format.JSON, null, 10));
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+	}
+}
@@ -0,0 +1,95 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.oles.oles.model.Question;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class QuestionSearchIndexTest {
+
+	private static Question question(long id, String subject, String text, String... choices) {
+		Question q = new Question(subject, text, choices[0], choices[1], choices[2], choices[3], 1);
+		q.setId(id);
+		return q;
+	}
+
+	private static QuestionSearchIndex index(Question... qs) {
+		QuestionSearchIndex index = new QuestionSearchIndex(null, null);
+		index.putAll(List.of(qs));
+		return index;
+	}
+
+	private static List<Long> ids(QuestionSearchIndex.Page page) {
+		return page.hits().stream().map(QuestionSearchIndex.Hit::id).toList();
+	}
+
+	@Test
+	void tokenizesOnAnythingButLettersAndDigits() {
+		assertEquals(List.of("what", "is", "h2o", "s", "symbol"), QuestionSearchIndex.tokenize("What is H2O's symbol?"));
+		assertEquals(List.of(), QuestionSearchIndex.tokenize(" -- "));
+	}
+
+	@Test
+	void everyWordMustMatchAndTextRanksAboveChoices() {
+		QuestionSearchIndex index = index(
+				question(1, "Science", "Which gas do plants absorb?", "oxygen", "carbon dioxide", "helium", "neon"),
+				question(2, "Science", "What is carbon dioxide made of?", "C and O", "H and O", "N", "Ar"),
+				question(3, "Maths", "What is 2 + 2?", "3", "4", "5", "6"));
+		assertEquals(List.of(2L, 1L), ids(index.search("Carbon dioxide", null, 0, 10)));
+		assertEquals(List.of(1L), ids(index.search("plants carbon", null, 0, 10)));
+		assertEquals(0, index.search("carbon unicorn", null, 0, 10).total());
+		assertEquals(List.of(3L), ids(index.search("what", "maths", 0, 10)));
+		// Subject alone lists that subject in id order
+		assertEquals(List.of(1L, 2L), ids(index.search(null, " science ", 0, 10)));
+	}
+
+	@Test
+	void pagesThroughRankedMatches() {
+		List<Question> qs = new ArrayList<>();
+		for (long id = 1; id <= 25; id++)
+			qs.add(question(id, "History", "Question " + id + " about history", "a", "b", "c", "d"));
+		QuestionSearchIndex index = new QuestionSearchIndex(null, null);
+		index.putAll(qs);
+		QuestionSearchIndex.Page first = index.search("history", null, 0, 10);
+		QuestionSearchIndex.Page last = index.search("history", null, 2, 10);
+		assertEquals(25, first.total());
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), ids(first));
+		assertEquals(List.of(21L, 22L, 23L, 24L, 25L), ids(last));
+		assertTrue(index.search("history", null, 3, 10).hits().isEmpty());
+	}
+
+	@Test
+	void editsAndDeletesReplaceWhatWasIndexed() {
+		QuestionSearchIndex index = index(
+				question(1, "Science", "Red planet?", "Venus", "Mars", "Jupiter", "Saturn"),
+				question(2, "Science", "Largest planet?", "Venus", "Mars", "Jupiter", "Saturn"),
+				question(3, "Science", "Ringed planet?", "Venus", "Mars", "Jupiter", "Saturn"));
+		index.put(question(2, "Astronomy", "Biggest gas giant?", "Venus", "Mars", "Jupiter", "Saturn"));
+		assertEquals(List.of(1L, 3L), ids(index.search("planet", null, 0, 10)));
+		assertEquals(List.of(2L), ids(index.search("giant", "astronomy", 0, 10)));
+		assertEquals(List.of(1L, 3L), ids(index.search(null, "Science", 0, 10)));
+
+		index.remove(1L);
+		index.remove(3L);
+		assertEquals(0, index.search("planet", null, 0, 10).total());
+		assertEquals(0, index.search(null, "science", 0, 10).total());
+		assertEquals(List.of(2L), ids(index.search("jupiter", null, 0, 10)));
+		assertEquals(1, index.stats().questions());
+	}
+
+	@Test
+	void densePostingsTakeAboutTwoBytesPerQuestion() {
+		List<Question> qs = new ArrayList<>();
+		for (long id = 1; id <= 10_000; id++)
+			qs.add(question(id, "S", "common", "x", "y", "z", "w"));
+		QuestionSearchIndex index = new QuestionSearchIndex(null, null);
+		index.putAll(qs);
+		// Six terms plus the subject filter, each a 10k-long list of one-byte deltas
+		assertTrue(index.stats().postingsBytes() < 7 * 10_000 * 2 * 3 / 2,
+				"postings bytes " + index.stats().postingsBytes());
+		assertEquals(10_000, index.search("common", "s", 0, 1).total());
+	}
+}
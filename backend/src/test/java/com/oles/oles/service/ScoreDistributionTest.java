@@ -0,0 +1,53 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class ScoreDistributionTest {
+
+	@Test
+	void tracksMomentsAndHistogram() {
+		ScoreDistribution d = new ScoreDistribution(4);
+		for (int s : new int[] { 2, 4, 4, 4, 5, 5, 7, 9 })
+			d.add(s);
+		ScoreDistribution.Snapshot s = d.snapshot();
+		assertEquals(8, s.count());
+		assertEquals(5.0, s.mean(), 1e-9);
+		assertEquals(32.0 / 7, s.variance(), 1e-9);
+		assertEquals(2, s.min());
+		assertEquals(9, s.max());
+		assertArrayEquals(new long[] { 0, 0, 1, 0, 3, 2, 0, 1, 0, 1 }, s.histogram());
+	}
+
+	@Test
+	void percentileRankCountsHalfOfTies() {
+		ScoreDistribution d = new ScoreDistribution(10);
+		for (int s = 1; s <= 10; s++)
+			d.add(s);
+		assertEquals(45.0, d.percentileRank(5), 1e-9);
+		assertEquals(95.0, d.percentileRank(10), 1e-9);
+		assertEquals(0.0, d.percentileRank(0), 1e-9);
+		assertEquals(100.0, d.percentileRank(50), 1e-9);
+		assertEquals(4, d.countBelow(5));
+	}
+
+	@Test
+	void removeUndoesAnAdd() {
+		ScoreDistribution d = new ScoreDistribution(4);
+		for (int s : new int[] { 2, 4, 4, 4, 5, 5, 7, 9 })
+			d.add(s);
+		d.add(1);
+		d.add(12);
+		d.remove(12);
+		d.remove(1);
+		d.remove(3);
+		ScoreDistribution.Snapshot s = d.snapshot();
+		assertEquals(8, s.count());
+		assertEquals(5.0, s.mean(), 1e-9);
+		assertEquals(32.0 / 7, s.variance(), 1e-9);
+		assertEquals(2, s.min());
+		assertEquals(9, s.max());
+	}
+}
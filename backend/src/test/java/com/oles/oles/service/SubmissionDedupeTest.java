@@ -0,0 +1,85 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+class SubmissionDedupeTest {
+
+	private final SubmissionDedupe dedupe = new SubmissionDedupe(100, 30, 5000);
+	private final AtomicInteger calls = new AtomicInteger();
+
+	private ResponseEntity<?> save() {
+		return ResponseEntity.ok(calls.incrementAndGet());
+	}
+
+	@Test
+	void replaysTheFirstResponseForTheSameKey() {
+		ResponseEntity<?> first = dedupe.execute("alice", 1L, "k", this::save);
+		ResponseEntity<?> retry = dedupe.execute("alice", 1L, "k", this::save);
+		assertEquals(1, calls.get());
+		assertEquals(first.getBody(), retry.getBody());
+		assertNull(first.getHeaders().getFirst("Idempotent-Replayed"));
+		assertEquals("true", retry.getHeaders().getFirst("Idempotent-Replayed"));
+	}
+
+	@Test
+	void keysAreScopedToUserAndExam() {
+		dedupe.execute("alice", 1L, "k", this::save);
+		dedupe.execute("bob", 1L, "k", this::save);
+		dedupe.execute("alice", 2L, "k", this::save);
+		dedupe.execute("alice", 1L, null, this::save);
+		dedupe.execute("alice", 1L, null, this::save);
+		assertEquals(5, calls.get());
+	}
+
+	@Test
+	void failedSubmissionsAreNotRemembered() {
+		dedupe.execute("alice", 1L, "k", () -> ResponseEntity.badRequest().build());
+		dedupe.execute("alice", 1L, "k", this::save);
+		assertEquals(1, calls.get());
+		assertEquals(1, dedupe.stats().size());
+	}
+
+	@Test
+	void concurrentRetryWaitsForTheOriginal() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			Future<ResponseEntity<?>> first = pool.submit(() -> dedupe.execute("alice", 1L, "k", () -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return save();
+			}));
+			started.await();
+			Future<ResponseEntity<?>> retry = pool.submit(() -> dedupe.execute("alice", 1L, "k", this::save));
+			release.countDown();
+			assertEquals(first.get().getBody(), retry.get().getBody());
+			assertEquals(1, calls.get());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void evictsCompletedEntriesWhenFull() {
+		SubmissionDedupe small = new SubmissionDedupe(10, 30, 5000);
+		for (int i = 0; i < 25; i++)
+			small.execute("alice", 1L, "k" + i, this::save);
+		assertTrue(small.stats().size() <= 11);
+		assertTrue(small.stats().evictions() > 0);
+	}
+}
@@ -0,0 +1,87 @@
+package com.oles.oles.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.oles.oles.model.Exam;
+import com.oles.oles.model.Result;
+import com.oles.oles.model.User;
+import com.oles.oles.repo.ResultRepository;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class SubmissionPipelineTest {
+
+	private final ResultRepository results = mock(ResultRepository.class);
+	private final ScoreAggregates aggregates = mock(ScoreAggregates.class);
+	private final SubmissionPipeline pipeline = new SubmissionPipeline(results, mock(AnswerSessionStore.class),
+			aggregates, mock(ReadRouting.class), mock(PlatformTransactionManager.class), true, 10, 10, 100, 50, 30);
+
+	private static User user() {
+		User u = new User();
+		u.setId(5L);
+		u.setUsername("alice");
+		return u;
+	}
+
+	private static Exam exam() {
+		Exam e = new Exam();
+		e.setId(7L);
+		return e;
+	}
+
+	@Test
+	void queuedAttemptsAreNumberedWithoutRereadingTheDatabase() {
+		User alice = user();
+		Exam exam = exam();
+		when(results.findLastAttempt(alice, exam)).thenReturn(2);
+		// Nothing drains the queue here, so both attempts are still outstanding
+		assertEquals(3, pipeline.nextAttempt(alice, exam));
+		assertEquals(4, pipeline.nextAttempt(alice, exam));
+		verify(results, times(1)).findLastAttempt(alice, exam);
+	}
+
+	@Test
+	void refusedSubmissionGivesBackItsAttemptAndScore() {
+		User alice = user();
+		Exam exam = exam();
+		when(results.findLastAttempt(alice, exam)).thenReturn(0);
+		Result r = new Result(alice, exam, 6, 10);
+		r.setAttempt(pipeline.nextAttempt(alice, exam));
+		// The writer was never started, so there is nowhere to queue it
+		assertThrows(SubmissionBusyException.class, () -> pipeline.submit(r));
+		verify(aggregates).forget(7L, 6);
+		// The retry gets the same attempt number from the database
+		assertEquals(1, pipeline.nextAttempt(alice, exam));
+		verify(results, times(2)).findLastAttempt(alice, exam);
+	}
+
+	@Test
+	void slowLookupHoldsUpOnlyItsOwnCandidateAndExam() throws Exception {
+		User alice = user();
+		Exam exam = exam();
+		Exam other = new Exam();
+		other.setId(8L);
+		CountDownLatch lookingUp = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(results.findLastAttempt(alice, exam)).thenAnswer(inv -> {
+			lookingUp.countDown();
+			release.await();
+			return 1;
+		});
+		when(results.findLastAttempt(alice, other)).thenReturn(4);
+		CompletableFuture<Integer> slow = CompletableFuture.supplyAsync(() -> pipeline.nextAttempt(alice, exam));
+		lookingUp.await();
+		assertEquals(5, assertTimeoutPreemptively(Duration.ofSeconds(2), () -> pipeline.nextAttempt(alice, other)));
+		release.countDown();
+		assertEquals(2, slow.get());
+	}
+}
@@ -0,0 +1,36 @@
+package com.oles.oles.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password check on login. SecurityConfig uses the encoder's default strength (10);
+ * the higher costs show what raising it would do to login latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BCryptBenchmark {
+
+    @Param({ "10", "12" })
+    int strength;
+
+    BCryptPasswordEncoder encoder;
+    String hash;
+
+    @Setup
+    public void setup() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("candidate123");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("candidate123", hash);
+    }
+}
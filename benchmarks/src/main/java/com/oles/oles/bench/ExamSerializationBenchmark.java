@@ -0,0 +1,58 @@
+package com.oles.oles.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oles.oles.model.Exam;
+import com.oles.oles.repo.ExamRepository;
+import com.oles.oles.service.ExamPaperCache;
+import com.oles.oles.service.PaperShuffle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producing the exam payload: Jackson over the {@link Exam} entity with its questions
+ * (what the endpoint originally returned), against the pre-rendered paper bytes and a
+ * per-candidate shuffled copy of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExamSerializationBenchmark {
+
+    @Param({ "10", "50", "200" })
+    int questions;
+
+    ObjectMapper mapper;
+    Exam exam;
+    ExamPaperCache.RenderedPaper paper;
+    ExamPaperCache.Ordering ordering;
+
+    @Setup
+    public void setup() {
+        mapper = Fixtures.mapper();
+        exam = Fixtures.exam(questions);
+        ExamRepository exams = Fixtures.repository(ExamRepository.class,
+                (method, args) -> method.equals("findWithQuestionsById") ? Optional.of(exam) : null);
+        paper = new ExamPaperCache(exams, mapper).get(exam.getId());
+        ordering = new PaperShuffle(true, "bench").ordering("candidate1", exam.getId());
+    }
+
+    @Benchmark
+    public byte[] jacksonEntity() throws Exception {
+        return mapper.writeValueAsBytes(exam);
+    }
+
+    @Benchmark
+    public byte[] renderedPaper() {
+        return paper.plain();
+    }
+
+    @Benchmark
+    public byte[] shuffledPaper() {
+        return paper.assemble(ordering);
+    }
+}
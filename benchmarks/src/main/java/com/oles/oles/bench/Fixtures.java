@@ -0,0 +1,92 @@
+package com.oles.oles.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.oles.oles.model.Exam;
+import com.oles.oles.model.Question;
+import com.oles.oles.model.Result;
+import com.oles.oles.model.Role;
+import com.oles.oles.model.User;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/** Deterministic in-memory data shared by the benchmarks; nothing here touches a database. */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /** An exam with {@code size} questions, ids 1..size, about the length of the seeded ones. */
+    public static Exam exam(int size) {
+        Random rnd = new Random(size);
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        Exam e = new Exam("Benchmark " + size, "General", 60, start, start.plusHours(1));
+        e.setId(1L);
+        for (int i = 1; i <= size; i++) {
+            Question q = new Question("General", "Question " + i + ": which of the following statements about item "
+                    + i + " is correct?", "First option " + i, "Second option " + i, "Third option " + i,
+                    "Fourth option " + i, 1 + rnd.nextInt(4));
+            q.setId((long) i);
+            e.getQuestions().add(q);
+        }
+        return e;
+    }
+
+    /** A submission answering every question, roughly three quarters of them correctly. */
+    public static Map<Long, Integer> answers(Exam e) {
+        Random rnd = new Random(e.getQuestions().size() * 31L);
+        Map<Long, Integer> answers = new HashMap<>();
+        for (Question q : e.getQuestions())
+            answers.put(q.getId(), rnd.nextInt(4) == 0 ? 1 + rnd.nextInt(4) : q.getCorrectIndex());
+        return answers;
+    }
+
+    /** {@code n} graded results for the exam, one per candidate, each with a BCrypt-length password hash. */
+    public static List<Result> results(Exam e, int n) {
+        Random rnd = new Random(n);
+        int total = e.getQuestions().size();
+        List<Result> results = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            User u = new User("candidate" + i, "$2a$10$" + "x".repeat(53), "Candidate " + i,
+                    "candidate" + i + "@example.com", Role.CANDIDATE);
+            u.setId((long) i);
+            Result r = new Result(u, e, rnd.nextInt(total + 1), total);
+            r.setId((long) i);
+            r.setAttempt(1);
+            r.setSubmittedAt(LocalDateTime.of(2026, 1, 1, 10, 0).plusSeconds(i));
+            results.add(r);
+        }
+        return results;
+    }
+
+    /** Configured like Spring Boot's auto-configured mapper: java.time support, ISO dates. */
+    public static ObjectMapper mapper() {
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    /**
+     * Stands in for a Spring Data repository: {@code handler} gets the method name and
+     * arguments; anything it returns null for fails loudly so a benchmark never measures
+     * an unexpected path.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T repository(Class<T> type, BiFunction<String, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, m, args) -> {
+            Object r = handler.apply(m.getName(), args);
+            if (r == null)
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + m.getName());
+            return r;
+        });
+    }
+}
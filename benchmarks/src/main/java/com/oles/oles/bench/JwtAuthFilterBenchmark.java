@@ -0,0 +1,59 @@
+package com.oles.oles.bench;
+
+import com.oles.oles.config.JwtAuthFilter;
+import com.oles.oles.model.Role;
+import com.oles.oles.repo.UserRepository;
+import com.oles.oles.service.JwtService;
+import com.oles.oles.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through {@link JwtAuthFilter}. {@code cached} hits the
+ * verified-token cache; {@code uncached} uses a cache that never keeps anything, so
+ * every call parses the token and looks up the role (from an in-memory stub here, so
+ * the database round trip itself is not included).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    @Param({ "cached", "uncached" })
+    String path;
+
+    JwtAuthFilter filter;
+    MockHttpServletRequest request;
+
+    @Setup
+    public void setup() {
+        JwtService jwt = new JwtService();
+        UserRepository users = Fixtures.repository(UserRepository.class,
+                (method, args) -> method.equals("findRoleByUsername") ? Optional.of(Role.CANDIDATE) : null);
+        VerifiedTokenCache tokens = path.equals("cached") ? new VerifiedTokenCache(20000, 300)
+                : new VerifiedTokenCache(1, 0);
+        filter = new JwtAuthFilter(jwt, users, tokens, new SimpleMeterRegistry());
+        request = new MockHttpServletRequest("GET", "/api/candidate/exams");
+        request.addHeader("Authorization", "Bearer " + jwt.generate("candidate1", "CANDIDATE"));
+    }
+
+    @Benchmark
+    public Object filter() throws Exception {
+        FilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        Object auth = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return auth;
+    }
+}
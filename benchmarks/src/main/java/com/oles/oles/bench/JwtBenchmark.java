@@ -0,0 +1,35 @@
+package com.oles.oles.bench;
+
+import com.oles.oles.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Token signing on login and signature verification on every authenticated request. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    JwtService jwt;
+    String token;
+
+    @Setup
+    public void setup() {
+        jwt = new JwtService();
+        token = jwt.generate("candidate1", "CANDIDATE");
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwt.generate("candidate1", "CANDIDATE");
+    }
+
+    @Benchmark
+    public Object parse() {
+        return jwt.parse(token).getBody();
+    }
+}
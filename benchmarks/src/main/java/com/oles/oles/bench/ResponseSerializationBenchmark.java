@@ -0,0 +1,65 @@
+package com.oles.oles.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.oles.oles.dto.ResultView;
+import com.oles.oles.model.Exam;
+import com.oles.oles.model.Result;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result responses (submit returns one, the result lists return many): the {@link Result}
+ * entities as the endpoints used to return them, with candidate and the exam's full question
+ * list, against {@link ResultView}s serialized by plain Jackson and with Blackbird. The view
+ * benchmarks include the entity-to-view mapping. Bytes per response are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({ "1", "100" })
+    int rows;
+
+    @Param({ "50" })
+    int questions;
+
+    ObjectMapper plain;
+    ObjectMapper blackbird;
+    List<Result> results;
+
+    @Setup
+    public void setup() throws Exception {
+        plain = Fixtures.mapper();
+        blackbird = Fixtures.mapper().registerModule(new BlackbirdModule());
+        Exam exam = Fixtures.exam(questions);
+        results = Fixtures.results(exam, rows);
+        System.out.printf("%nbytes per response (rows=%d, questions=%d): entity=%d view=%d%n", rows, questions,
+                entity().length, viewPlain().length);
+    }
+
+    @Benchmark
+    public byte[] entity() throws Exception {
+        return plain.writeValueAsBytes(rows == 1 ? results.get(0) : results);
+    }
+
+    @Benchmark
+    public byte[] viewPlain() throws Exception {
+        return plain.writeValueAsBytes(views());
+    }
+
+    @Benchmark
+    public byte[] viewBlackbird() throws Exception {
+        return blackbird.writeValueAsBytes(views());
+    }
+
+    private Object views() {
+        return rows == 1 ? ResultView.of(results.get(0)) : results.stream().map(ResultView::of).toList();
+    }
+}
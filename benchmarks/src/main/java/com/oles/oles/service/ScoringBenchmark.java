@@ -0,0 +1,67 @@
+package com.oles.oles.service;
+
+import com.oles.oles.bench.Fixtures;
+import com.oles.oles.model.Exam;
+import com.oles.oles.model.Question;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The scoring step of {@code ResultController.submit}: the original walk over the
+ * exam's questions with a map lookup each, against encoding into the answer vector
+ * and scoring that from the cached {@link AnswerKey}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringBenchmark {
+
+    @Param({ "10", "50", "200", "1000" })
+    int questions;
+
+    Exam exam;
+    Map<Long, Integer> answers;
+    AnswerKey key;
+    byte[] vector;
+
+    @Setup
+    public void setup() {
+        exam = Fixtures.exam(questions);
+        answers = Fixtures.answers(exam);
+        long[] ids = new long[questions];
+        byte[] correct = new byte[questions];
+        for (int i = 0; i < questions; i++) {
+            Question q = exam.getQuestions().get(i);
+            ids[i] = q.getId();
+            correct[i] = q.getCorrectIndex().byteValue();
+        }
+        key = new AnswerKey(ids, correct);
+        vector = key.encode(answers);
+    }
+
+    @Benchmark
+    public int entityLoop() {
+        int score = 0;
+        for (Question q : exam.getQuestions()) {
+            Integer chosen = answers.get(q.getId());
+            if (chosen != null && chosen.equals(q.getCorrectIndex()))
+                score++;
+        }
+        return score;
+    }
+
+    @Benchmark
+    public int encodeAndScore() {
+        return key.scoreVector(key.encode(answers));
+    }
+
+    @Benchmark
+    public int scoreVector() {
+        return key.scoreVector(vector);
+    }
+}
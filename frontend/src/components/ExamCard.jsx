@@ -38,7 +38,7 @@ const ExamCard = ({ exam }) => {
                 </div>
                 <div className="flex items-center text-sm text-gray-600">
                     <span className="w-4 h-4 mr-2">📝</span>
-                    <span>{exam.questions?.length || 0} questions</span>
+                    <span>{exam.questionCount ?? exam.questions?.length ?? 0} questions</span>
                 </div>
                 {exam.startTime && (
                     <div className="text-xs text-gray-500 mt-2">
@@ -0,0 +1,64 @@
+import { useEffect, useState } from "react";
+import api from "../api";
+
+// Follows /admin/exams/{id}/live. EventSource cannot send the bearer token, so the
+// stream is read with fetch: a "snapshot" event, then "delta" events merged into it.
+// Reconnects a few seconds after the stream ends or fails.
+export function useLiveExam(examId) {
+  const [live, setLive] = useState(null);
+
+  useEffect(() => {
+    if (!examId) return undefined;
+    const controller = new AbortController();
+    let retry;
+
+    const apply = (block) => {
+      let name = "message";
+      let data = "";
+      for (const line of block.split("\n")) {
+        if (line.startsWith("event:")) name = line.slice(6).trim();
+        else if (line.startsWith("data:")) data += line.slice(5);
+      }
+      if (!data) return;
+      const body = JSON.parse(data);
+      if (name === "snapshot") setLive(body);
+      else if (name === "delta") setLive((prev) => (prev ? { ...prev, ...body } : prev));
+    };
+
+    const connect = async () => {
+      try {
+        const res = await fetch(`${api.defaults.baseURL}/admin/exams/${examId}/live`, {
+          headers: { Authorization: `Bearer ${localStorage.getItem("token")}` },
+          signal: controller.signal,
+        });
+        if (!res.ok) throw new Error(`HTTP ${res.status}`);
+        const reader = res.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = "";
+        for (;;) {
+          const { value, done } = await reader.read();
+          if (done) break;
+          buffer += decoder.decode(value, { stream: true });
+          let end;
+          while ((end = buffer.indexOf("\n\n")) >= 0) {
+            apply(buffer.slice(0, end));
+            buffer = buffer.slice(end + 2);
+          }
+        }
+      } catch (err) {
+        if (controller.signal.aborted) return;
+        console.error("Live exam stream failed", err);
+      }
+      if (!controller.signal.aborted) retry = setTimeout(connect, 3000);
+    };
+
+    setLive(null);
+    connect();
+    return () => {
+      controller.abort();
+      clearTimeout(retry);
+    };
+  }, [examId]);
+
+  return live;
+}
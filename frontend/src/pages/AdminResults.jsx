@@ -3,6 +3,7 @@ import api from '../api';
 import Card from '../components/Card';
 import Button from '../components/Button';
 import LoadingSpinner, { LoadingCard } from '../components/LoadingSpinner';
+import { useLiveExam } from '../hooks/useLiveExam';
 
 export default function AdminResults() {
     const [results, setResults] = useState([]);
@@ -16,6 +17,9 @@ export default function AdminResults() {
     console.log("stats", stats);
     const [filter, setFilter] = useState('all'); // 'all', 'passed', 'failed'
     const [userIdFilter, setUserIdFilter] = useState('');
+    const [exams, setExams] = useState([]);
+    const [liveExamId, setLiveExamId] = useState('');
+    const live = useLiveExam(liveExamId);
 console.log("results", results);
     useEffect(() => {
         const fetchAllResults = async () => {
@@ -50,6 +54,7 @@ console.log("results", results);
             }
         };
         fetchAllResults();
+        api.get('/admin/exams').then((r) => setExams(r.data)).catch(() => setExams([]));
     }, []);
 
     const fetchResultsByUser = async (userId) => {
@@ -144,6 +149,43 @@ console.log("results", results);
                 </Card>
             </div>
 
+            {/* Live exam: pushed by the server while submissions come in, no polling */}
+            <Card className="fade-in">
+                <div className="flex items-center justify-between">
+                    <div>
+                        <h3 className="text-lg font-semibold text-gray-900">Live Exam</h3>
+                        <p className="text-sm text-gray-600">Submissions and scores update as they happen</p>
+                    </div>
+                    <select value={liveExamId} onChange={e => setLiveExamId(e.target.value)} className="p-2 border rounded">
+                        <option value="">Select an exam</option>
+                        {exams.map(exam => (
+                            <option key={exam.id} value={exam.id}>{exam.title}</option>
+                        ))}
+                    </select>
+                </div>
+                {liveExamId && !live && <LoadingSpinner />}
+                {live && (
+                    <div className="grid grid-cols-2 md:grid-cols-4 gap-4 mt-4 text-center">
+                        <div>
+                            <div className="text-xl font-bold text-primary-600">{live.submitted}</div>
+                            <div className="text-xs text-gray-500">Submitted</div>
+                        </div>
+                        <div>
+                            <div className="text-xl font-bold text-warning-600">{live.inProgress}</div>
+                            <div className="text-xs text-gray-500">In Progress</div>
+                        </div>
+                        <div>
+                            <div className="text-xl font-bold text-success-600">{live.mean.toFixed(1)}</div>
+                            <div className="text-xs text-gray-500">Mean Score (σ {live.stddev.toFixed(1)})</div>
+                        </div>
+                        <div>
+                            <div className="text-xl font-bold text-gray-900">{live.min}–{live.max}</div>
+                            <div className="text-xs text-gray-500">Score Range</div>
+                        </div>
+                    </div>
+                )}
+            </Card>
+
             {/* Filter Controls */}
             <Card className="fade-in">
                 <div className="flex items-center justify-between">
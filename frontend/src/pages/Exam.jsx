@@ -1,4 +1,4 @@
-import React, { useState, useEffect, useCallback } from 'react';
+import React, { useState, useEffect, useCallback, useRef } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import api from '../api';
 import QuestionCard from '../components/QuestionCard';
@@ -17,12 +17,17 @@ export default function Exam() {
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState(null);
     const [showConfirmSubmit, setShowConfirmSubmit] = useState(false);
+    // One key per sitting so a retried submit replays the first result instead of grading twice
+    const submitKey = useRef(crypto.randomUUID());
     console.log("id", id);
     useEffect(() => {
         const fetchExam = async () => {
             try {
                 const response = await api.get(`/candidate/exams/${id}`);
                 setExam(response.data);
+                // Resume answers saved before a reload or crash
+                const saved = await api.get(`/candidate/exams/${id}/session`).catch(() => null);
+                if (saved && saved.data) setAnswers(saved.data);
                 // Do not start the timer immediately. User must click Start Exam.
                 // The timer will be initialized when the user presses Start.
                 setLoading(false);
@@ -40,7 +45,19 @@ export default function Exam() {
 
         try {
             setSubmitted(true);
-            await api.post(`/candidate/exams/${id}/submit`, answers);
+            // 429 means the submit queue is full; the server keeps our arrival time, so wait and retry
+            for (;;) {
+                try {
+                    await api.post(`/candidate/exams/${id}/submit`, answers, {
+                        headers: { 'Idempotency-Key': submitKey.current },
+                    });
+                    break;
+                } catch (err) {
+                    if (err.response?.status !== 429) throw err;
+                    const wait = Number(err.response.headers['retry-after']) || 5;
+                    await new Promise((resolve) => setTimeout(resolve, wait * 1000));
+                }
+            }
             navigate('/results');
         } catch {
             alert('Failed to submit exam');
@@ -80,6 +97,8 @@ export default function Exam() {
             ...prev,
             [questionId]: answer
         }));
+        // Autosave each click; the server keeps it in memory and flushes periodically
+        api.put(`/candidate/exams/${id}/autosave`, { [questionId]: answer }).catch(() => {});
     };
 
 